@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Used to adjust the prefetch of a {@link Queue} consumer at runtime based on
+ * how quickly messages are being processed. The prefetch is periodically set to
+ * the number of messages the consumer is expected to process during the time it
+ * takes to process a message plus the {@link #buffer()}, in accordance with
+ * Little's law.
+ *
+ * The prefetch of the {@link Queue} is used as the initial prefetch if set.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface AdaptivePrefetch {
+
+    /**
+     * @return The minimum prefetch
+     */
+    int min() default 1;
+
+    /**
+     * @return The maximum prefetch
+     */
+    int max() default 1000;
+
+    /**
+     * @return How long messages should be buffered by the consumer before they are processed
+     */
+    String buffer() default "100ms";
+
+    /**
+     * @return How often the prefetch is adjusted
+     */
+    String interval() default "1s";
+}
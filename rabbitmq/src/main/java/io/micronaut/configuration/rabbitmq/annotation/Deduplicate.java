@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Used to skip messages of a {@link Queue} that have already been processed,
+ * for example when messages are redelivered after a broker failover. Messages
+ * that were processed within the {@link #ttl()} are acknowledged without
+ * invoking the method.
+ *
+ * Messages are identified by their message id unless a {@link #header()} or
+ * {@link #property()} is specified. Messages without a key are always processed.
+ * The keys are stored as 64 bit hashes outside of the heap.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Deduplicate {
+
+    /**
+     * @return The name of the header to use as the key
+     */
+    String header() default "";
+
+    /**
+     * @return The name of the {@link com.rabbitmq.client.BasicProperties} property to use as the key
+     */
+    String property() default "";
+
+    /**
+     * @return The duration a processed message is remembered for
+     */
+    String ttl() default "10m";
+
+    /**
+     * The number of messages to remember. When the index is full, the messages
+     * closest to expiring are forgotten first. Each message occupies 32 bytes.
+     *
+     * @return The capacity of the index
+     */
+    int capacity() default 100000;
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Used to process messages of a {@link Queue} in parallel while preserving
+ * the order of messages that share the same key. Each message is assigned to
+ * one of a fixed number of lanes based on the hash of its key. Messages within
+ * a lane are processed one at a time in the order they were delivered.
+ *
+ * The key is the routing key of the message unless a {@link #header()} or
+ * {@link #property()} is specified.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface KeyOrdered {
+
+    /**
+     * @return The number of lanes to process messages on
+     */
+    int lanes();
+
+    /**
+     * @return The name of the header to use as the key
+     */
+    String header() default "";
+
+    /**
+     * @return The name of the {@link com.rabbitmq.client.BasicProperties} property to use as the key
+     */
+    String property() default "";
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Used to stop consuming from a {@link Queue} while the method keeps failing,
+ * for example because a service it depends on is unavailable. The outcome of
+ * the most recent {@link #window()} messages is recorded. Once at least
+ * {@link #minimumCalls()} outcomes are recorded and the fraction of failures
+ * reaches the {@link #failureRate()}, the circuit opens and the consumers are
+ * cancelled so the remaining messages stay in the queue.
+ *
+ * After the {@link #openDuration()} the circuit is half open and a number of
+ * {@link #probes()} are retrieved from the queue and processed. If they all
+ * succeed the circuit closes and the consumers are subscribed again, otherwise
+ * it opens again. A message fails if the method throws an exception, including
+ * methods that acknowledge messages themselves.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface ListenerCircuitBreaker {
+
+    /**
+     * @return The number of most recent messages the failure rate is calculated from
+     */
+    int window() default 20;
+
+    /**
+     * @return The number of messages that must be processed before the circuit can open
+     */
+    int minimumCalls() default 10;
+
+    /**
+     * @return The fraction of failed messages at which the circuit opens
+     */
+    double failureRate() default 0.5;
+
+    /**
+     * @return The time the circuit stays open before messages are probed
+     */
+    String openDuration() default "30s";
+
+    /**
+     * @return The number of messages processed while half open to decide whether to close the circuit
+     */
+    int probes() default 1;
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Used to stop processing messages of a {@link Queue} that have been delivered
+ * too many times. This protects the consumer from messages that cause it to
+ * crash or to lose its channel before the message can be acknowledged, which
+ * would otherwise be redelivered forever.
+ *
+ * The number of deliveries is determined from the {@code x-delivery-count}
+ * header of quorum queues, the {@code x-death} header of dead lettered messages
+ * and the redeliveries observed by the consumer. Messages are identified by
+ * their message id, or by a hash of their body if they do not have one.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface Quarantine {
+
+    /**
+     * @return The maximum number of times a message will be delivered to the method
+     */
+    int maxDeliveries() default 5;
+
+    /**
+     * The exchange to publish quarantined messages to with their original routing
+     * key. If not set, quarantined messages are rejected without being re-queued so
+     * they are dead lettered if the queue has a dead letter exchange.
+     *
+     * @return The quarantine exchange
+     */
+    String exchange() default "";
+
+    /**
+     * The maximum time to wait for the broker to confirm a message published to the
+     * quarantine exchange. If it is not confirmed in time, or cannot be routed to a
+     * queue, the message is re-queued.
+     *
+     * @return The confirm timeout
+     */
+    String confirmTimeout() default "5s";
+
+    /**
+     * @return The number of messages to track redeliveries of
+     */
+    int capacity() default 65536;
+}
@@ -48,4 +48,33 @@ public @interface Queue {
      */
     boolean exclusive() default false;
 
+    /**
+     * The maximum number of unacknowledged messages the broker will deliver
+     * to the consumer. When the consumer is executed on a dedicated
+     * {@link #executor()}, this is also the maximum number of messages
+     * that will be processed concurrently.
+     *
+     * @return The prefetch count. 0 means unlimited.
+     */
+    int prefetch() default 0;
+
+    /**
+     * The name of an {@link java.util.concurrent.ExecutorService} to execute
+     * the consumer on instead of the executor of the connection. Takes precedence
+     * over {@link RabbitListener#executor()}.
+     *
+     * @return The executor service name
+     */
+    String executor() default "";
+
+    /**
+     * The number of consumers to subscribe to the queue. Each consumer
+     * has its own channel and {@link #prefetch()}. The concurrency can
+     * be changed at runtime through the
+     * {@link io.micronaut.configuration.rabbitmq.intercept.RabbitListenerRegistry}.
+     *
+     * @return The number of consumers
+     */
+    int concurrency() default 1;
+
 }
@@ -49,4 +49,12 @@ public @interface RabbitClient {
      */
     String value() default "";
 
+    /**
+     * The name of a connection configured under {@code rabbitmq.servers} to
+     * publish messages with instead of the default connection.
+     *
+     * @return The connection name
+     */
+    String connection() default "";
+
 }
@@ -37,4 +37,20 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE})
 @MessageListener
 public @interface RabbitListener {
+
+    /**
+     * The name of an {@link java.util.concurrent.ExecutorService} to execute
+     * the consumers of this listener on instead of the executor of the connection.
+     *
+     * @return The executor service name
+     */
+    String executor() default "";
+
+    /**
+     * The name of a connection configured under {@code rabbitmq.servers} to
+     * consume messages with instead of the default connection.
+     *
+     * @return The connection name
+     */
+    String connection() default "";
 }
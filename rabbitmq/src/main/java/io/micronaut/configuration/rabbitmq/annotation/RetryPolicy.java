@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Used to retry messages of a {@link Queue} that fail to be processed after
+ * a delay rather than immediately re-queuing them. A message fails if the
+ * method throws an exception or returns false. The delay grows exponentially
+ * with each attempt and is randomized by the {@link #jitter()}.
+ *
+ * The message remains unacknowledged while waiting to be retried. Once the
+ * last attempt fails, the message is rejected without being re-queued so it
+ * is dead lettered if the queue has a dead letter exchange. Retries do not
+ * apply to methods that acknowledge messages themselves.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RetryPolicy {
+
+    /**
+     * @return The maximum number of times the message is processed, including the first attempt
+     */
+    int attempts() default 3;
+
+    /**
+     * @return The delay before the first retry
+     */
+    String delay() default "1s";
+
+    /**
+     * @return The multiplier applied to the delay for every subsequent retry
+     */
+    double multiplier() default 2;
+
+    /**
+     * @return The maximum delay between retries
+     */
+    String maxDelay() default "1m";
+
+    /**
+     * @return The fraction by which the delay is randomly increased or decreased
+     */
+    double jitter() default 0.2;
+}
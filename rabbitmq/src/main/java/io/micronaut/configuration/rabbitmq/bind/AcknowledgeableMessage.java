@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.bind;
+
+import io.micronaut.messaging.exceptions.MessageAcknowledgementException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * An element of a message stream that is acknowledged or rejected by the subscriber once
+ * it has been processed, rather than as soon as it is emitted. Declaring the stream of a
+ * listener with this element type, for example {@code Flowable<AcknowledgeableMessage<Product>>},
+ * allows asynchronous operators to process messages without them being acknowledged first.
+ *
+ * Only the first acknowledgement or rejection has an effect. Messages cannot be settled
+ * together with previous messages because the elements of a stream may complete in any order.
+ *
+ * @param <T> The type of the body
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class AcknowledgeableMessage<T> implements RabbitAcknowledgement {
+
+    private final RabbitConsumerState state;
+    private final T body;
+    private final BiConsumer<Boolean, Boolean> settle;
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    /**
+     * Default constructor.
+     *
+     * @param state The message state
+     * @param body The bound body of the message
+     * @param settle Invoked once with whether the message is acknowledged and whether it is re-queued
+     */
+    public AcknowledgeableMessage(RabbitConsumerState state, T body, BiConsumer<Boolean, Boolean> settle) {
+        this.state = state;
+        this.body = body;
+        this.settle = settle;
+    }
+
+    /**
+     * @return The bound body of the message
+     */
+    public T getBody() {
+        return body;
+    }
+
+    /**
+     * @return The message state
+     */
+    public RabbitConsumerState getState() {
+        return state;
+    }
+
+    /**
+     * @return True if the message has been acknowledged or rejected
+     */
+    public boolean isSettled() {
+        return settled.get();
+    }
+
+    @Override
+    public void ack(boolean multiple) throws MessageAcknowledgementException {
+        settle(true, multiple, false);
+    }
+
+    @Override
+    public void nack(boolean multiple, boolean reQueue) throws MessageAcknowledgementException {
+        settle(false, multiple, reQueue);
+    }
+
+    private void settle(boolean ack, boolean multiple, boolean reQueue) {
+        if (multiple) {
+            throw new MessageAcknowledgementException("The elements of a message stream cannot be settled together with previous messages");
+        }
+        if (settled.compareAndSet(false, true)) {
+            settle.accept(ack, reQueue);
+        }
+    }
+}
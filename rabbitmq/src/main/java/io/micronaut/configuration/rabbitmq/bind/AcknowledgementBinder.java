@@ -54,6 +54,7 @@ public class AcknowledgementBinder<T extends Acknowledgement> implements RabbitT
 
             private void ackNack(boolean ack, boolean multiple, boolean requeue)  throws MessageAcknowledgementException {
                 new RabbitMessageCloseable(source, multiple, requeue).withAcknowledge(ack).close();
+                source.settled(ack, requeue);
             }
         };
         return () -> Optional.of((T) acknowledgement);
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.bind;
+
+import io.micronaut.configuration.rabbitmq.serdes.RabbitMessageSerDes;
+
+/**
+ * A message body that is only deserialized when it is first requested. Binding
+ * an argument of this type allows a consumer to inspect the headers or properties
+ * of a message and skip the cost of deserializing messages it does not process.
+ *
+ * The deserialized body is cached, however instances are not thread safe and
+ * should not be shared between threads.
+ *
+ * @param <T> The type of the body
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class LazyBody<T> {
+
+    private final RabbitConsumerState messageState;
+    private final RabbitMessageSerDes<T> serDes;
+    private final Class<T> type;
+    private boolean deserialized;
+    private T body;
+
+    /**
+     * Default constructor.
+     *
+     * @param messageState The message state
+     * @param serDes The serdes to deserialize the body with
+     * @param type The type of the body
+     */
+    public LazyBody(RabbitConsumerState messageState, RabbitMessageSerDes<T> serDes, Class<T> type) {
+        this.messageState = messageState;
+        this.serDes = serDes;
+        this.type = type;
+    }
+
+    /**
+     * Deserializes the body on the first invocation.
+     *
+     * @return The deserialized body
+     */
+    public T get() {
+        if (!deserialized) {
+            body = serDes.deserialize(messageState, type);
+            deserialized = true;
+        }
+        return body;
+    }
+
+    /**
+     * @return The raw body of the message
+     */
+    public byte[] getBytes() {
+        return messageState.getBody();
+    }
+}
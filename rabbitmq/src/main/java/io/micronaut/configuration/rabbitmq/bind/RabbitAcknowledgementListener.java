@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.bind;
+
+/**
+ * Notified when a message is acknowledged or rejected, either through an
+ * {@link io.micronaut.messaging.Acknowledgement} argument of the consumer or
+ * by a stream consumer.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@FunctionalInterface
+public interface RabbitAcknowledgementListener {
+
+    /**
+     * @param state The message
+     * @param ack True if the message was acknowledged, false if it was rejected
+     * @param reQueue Whether a rejected message was re-queued
+     */
+    void settled(RabbitConsumerState state, boolean ack, boolean reQueue);
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.bind;
+
+import com.rabbitmq.client.Channel;
+import io.micronaut.messaging.exceptions.MessageAcknowledgementException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Acknowledges messages of a channel that complete out of order. Completed
+ * messages are acknowledged with a single multiple acknowledgement once every
+ * message delivered before them has also completed. Rejections are sent
+ * immediately.
+ *
+ * To prevent a single slow message from holding back the acknowledgement of
+ * every message after it (and with it the prefetch of the consumer), completed
+ * messages are acknowledged individually once more than a threshold of them are
+ * waiting for earlier messages.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class RabbitAcknowledgementTracker {
+
+    private final Channel channel;
+    private final int threshold;
+    private final Map<Long, Boolean> completed = new HashMap<>();
+    private long next;
+    private int pending;
+
+    /**
+     * Default constructor.
+     *
+     * @param channel The channel the messages were delivered on
+     * @param threshold The number of out of order acknowledgements to hold before
+     *                  acknowledging them individually
+     */
+    public RabbitAcknowledgementTracker(Channel channel, int threshold) {
+        this.channel = channel;
+        this.threshold = Math.max(1, threshold);
+    }
+
+    /**
+     * Records the delivery of a message. Must be called in the order
+     * messages are delivered.
+     *
+     * @param deliveryTag The delivery tag
+     */
+    public synchronized void delivered(long deliveryTag) {
+        if (next == 0) {
+            next = deliveryTag;
+        }
+    }
+
+    /**
+     * Acknowledges or rejects a message.
+     *
+     * @param deliveryTag The delivery tag
+     * @param acknowledge Whether the message should be acknowledged
+     * @param reQueue Whether a rejected message should be re-queued
+     * @throws MessageAcknowledgementException If an error occurred
+     */
+    public synchronized void complete(long deliveryTag, boolean acknowledge, boolean reQueue) throws MessageAcknowledgementException {
+        try {
+            if (!acknowledge) {
+                channel.basicNack(deliveryTag, false, reQueue);
+            }
+            // false marks a message that no longer needs to be acknowledged
+            completed.put(deliveryTag, acknowledge);
+            if (acknowledge) {
+                pending++;
+            }
+
+            long lastAcknowledged = -1;
+            Boolean state = completed.remove(next);
+            while (state != null) {
+                if (state) {
+                    lastAcknowledged = next;
+                    pending--;
+                }
+                next++;
+                state = completed.remove(next);
+            }
+            if (lastAcknowledged > -1) {
+                channel.basicAck(lastAcknowledged, true);
+            }
+
+            if (pending >= threshold) {
+                acknowledgeCompleted();
+            }
+        } catch (IOException e) {
+            throw new MessageAcknowledgementException("An error occurred acknowledging a message", e);
+        }
+    }
+
+    /**
+     * Individually acknowledges the completed messages that are waiting for earlier
+     * messages to complete. Used before the channel is closed.
+     *
+     * @throws MessageAcknowledgementException If an error occurred
+     */
+    public synchronized void flush() throws MessageAcknowledgementException {
+        try {
+            acknowledgeCompleted();
+        } catch (IOException e) {
+            throw new MessageAcknowledgementException("An error occurred acknowledging a message", e);
+        }
+    }
+
+    private void acknowledgeCompleted() throws IOException {
+        Iterator<Map.Entry<Long, Boolean>> iterator = completed.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Boolean> entry = iterator.next();
+            if (entry.getValue()) {
+                channel.basicAck(entry.getKey(), false);
+                entry.setValue(false);
+            }
+        }
+        pending = 0;
+    }
+}
@@ -17,6 +17,7 @@
 package io.micronaut.configuration.rabbitmq.bind;
 
 import io.micronaut.core.bind.ArgumentBinder;
+import io.micronaut.core.type.Argument;
 
 /**
  * An interface for RabbitMQ argument binding.
@@ -26,4 +27,16 @@ import io.micronaut.core.bind.ArgumentBinder;
  * @since 1.1.0
  */
 public interface RabbitArgumentBinder<T> extends ArgumentBinder<T, RabbitConsumerState> {
+
+    /**
+     * Returns the binder used to bind the argument for every message. Binders can
+     * return a binder that has already resolved anything that only depends on the
+     * argument, so that it is not resolved for every message.
+     *
+     * @param argument The argument of the consumer method
+     * @return The binder to bind the argument with
+     */
+    default ArgumentBinder<T, RabbitConsumerState> forArgument(Argument<T> argument) {
+        return this;
+    }
 }
@@ -69,20 +69,45 @@ public class RabbitBinderRegistry implements ArgumentBinderRegistry<RabbitConsum
 
     @Override
     public <T> Optional<ArgumentBinder<T, RabbitConsumerState>> findArgumentBinder(Argument<T> argument, RabbitConsumerState source) {
+        ArgumentBinder binder = findBinder(argument);
+        if (binder != null) {
+            return Optional.of(binder);
+        }
+        return Optional.of((ArgumentBinder<T, RabbitConsumerState>) defaultBinder);
+    }
+
+    /**
+     * Resolves the binder for an argument without a message. Unlike
+     * {@link #findArgumentBinder(Argument, RabbitConsumerState)}, arguments that
+     * would be handled by the {@link RabbitDefaultBinder} are resolved to the
+     * binder it would delegate to.
+     *
+     * @param argument The argument
+     * @param <T> The argument type
+     * @return The binder to bind the argument with
+     */
+    public <T> ArgumentBinder<T, RabbitConsumerState> findArgumentBinder(Argument<T> argument) {
+        ArgumentBinder binder = findBinder(argument);
+        if (binder == null) {
+            binder = defaultBinder.findArgumentBinder(argument);
+        }
+        if (binder instanceof RabbitArgumentBinder) {
+            return ((RabbitArgumentBinder<T>) binder).forArgument(argument);
+        }
+        return (ArgumentBinder<T, RabbitConsumerState>) binder;
+    }
 
+    private ArgumentBinder<?, RabbitConsumerState> findBinder(Argument<?> argument) {
         Optional<Class<? extends Annotation>> opt = argument.getAnnotationMetadata().getAnnotationTypeByStereotype(Bindable.class);
         if (opt.isPresent()) {
-            Class<? extends Annotation> annotationType = opt.get();
-            ArgumentBinder binder = byAnnotation.get(annotationType);
-            if (binder != null) {
-                return Optional.of(binder);
-            }
+            return byAnnotation.get(opt.get());
         } else {
-            ArgumentBinder binder = byType.get(argument.typeHashCode());
-            if (binder != null) {
-                return Optional.of(binder);
+            ArgumentBinder<?, RabbitConsumerState> binder = byType.get(argument.typeHashCode());
+            if (binder == null && argument.getTypeParameters().length > 0) {
+                // binders registered for the raw type also bind parameterized arguments
+                binder = byType.get(Argument.of(argument.getType()).typeHashCode());
             }
+            return binder;
         }
-        return Optional.of((ArgumentBinder<T, RabbitConsumerState>) defaultBinder);
     }
 }
@@ -21,6 +21,7 @@ import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Envelope;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 /**
@@ -36,6 +37,7 @@ public class RabbitConsumerState {
     private final AMQP.BasicProperties properties;
     private final byte[] body;
     private final Channel channel;
+    private final RabbitAcknowledgementListener acknowledgementListener;
 
     /**
      * Default constructor.
@@ -49,10 +51,26 @@ public class RabbitConsumerState {
                               AMQP.BasicProperties properties,
                               byte[] body,
                               Channel channel) {
+        this(envelope, properties, body, channel, null);
+    }
+
+    /**
+     * @param envelope The envelope
+     * @param properties The properties
+     * @param body The body
+     * @param channel The channel that consumed the message
+     * @param acknowledgementListener Notified when the message is settled through an acknowledgement argument
+     */
+    public RabbitConsumerState(Envelope envelope,
+                              AMQP.BasicProperties properties,
+                              byte[] body,
+                              Channel channel,
+                              @Nullable RabbitAcknowledgementListener acknowledgementListener) {
         this.envelope = envelope;
         this.properties = properties;
         this.body = body;
         this.channel = channel;
+        this.acknowledgementListener = acknowledgementListener;
     }
 
     /**
@@ -89,4 +107,17 @@ public class RabbitConsumerState {
     public Channel getChannel() {
         return channel;
     }
+
+    /**
+     * Notifies the consumer that the message was acknowledged or rejected
+     * through an acknowledgement argument.
+     *
+     * @param ack True if the message was acknowledged
+     * @param reQueue Whether a rejected message was re-queued
+     */
+    public void settled(boolean ack, boolean reQueue) {
+        if (acknowledgementListener != null) {
+            acknowledgementListener.settled(this, ack, reQueue);
+        }
+    }
 }
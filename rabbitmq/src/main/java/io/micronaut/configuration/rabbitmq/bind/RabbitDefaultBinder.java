@@ -17,6 +17,8 @@
 package io.micronaut.configuration.rabbitmq.bind;
 
 import io.micronaut.core.convert.ArgumentConversionContext;
+import io.micronaut.core.convert.ConversionContext;
+import io.micronaut.core.type.Argument;
 
 import javax.inject.Singleton;
 
@@ -61,4 +63,18 @@ public class RabbitDefaultBinder implements RabbitArgumentBinder<Object> {
             return bodyBinder.bind(context, messageState);
         }
     }
+
+    /**
+     * Resolves the binder this binder would delegate to for the given argument.
+     *
+     * @param argument The argument
+     * @return The property binder if the argument name matches a property, otherwise the body binder
+     */
+    public RabbitArgumentBinder<Object> findArgumentBinder(Argument<?> argument) {
+        if (propertyBinder.supports((ArgumentConversionContext<Object>) ConversionContext.of(argument))) {
+            return propertyBinder;
+        } else {
+            return bodyBinder;
+        }
+    }
 }
@@ -22,6 +22,7 @@ import io.micronaut.messaging.annotation.Header;
 
 import javax.inject.Singleton;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Binds an argument of with the {@link Header} annotation from the {@link RabbitConsumerState}.
@@ -55,9 +56,12 @@ public class RabbitHeaderBinder implements RabbitAnnotatedArgumentBinder<Header>
                 .orElse(context.getArgument().getName());
 
         Map<String, Object> rawHeaders = messageState.getProperties().getHeaders();
+        Object value = rawHeaders != null ? rawHeaders.get(parameterName) : null;
+        if (value == null) {
+            return Optional::empty;
+        }
 
-        RabbitHeaderConvertibleValues headers = new RabbitHeaderConvertibleValues(rawHeaders, conversionService);
-
-        return () -> headers.get(parameterName, context);
+        Optional<Object> converted = RabbitHeaderConvertibleValues.convert(value, context, conversionService);
+        return () -> converted;
     }
 }
@@ -16,6 +16,7 @@
 
 package io.micronaut.configuration.rabbitmq.bind;
 
+import com.rabbitmq.client.LongString;
 import io.micronaut.core.convert.ArgumentConversionContext;
 import io.micronaut.core.convert.ConversionError;
 import io.micronaut.core.convert.ConversionService;
@@ -24,7 +25,9 @@ import io.micronaut.core.convert.value.ConvertibleValues;
 import java.util.*;
 
 /**
- * Converts RabbitMQ header values to the requested type.
+ * Converts RabbitMQ header values to the requested type. Values are converted
+ * directly from their AMQP field table type (for example {@link Integer},
+ * {@link java.util.Date} or nested tables) rather than from their string form.
  *
  * @author James Kleeh
  * @since 1.1.0
@@ -33,7 +36,7 @@ public class RabbitHeaderConvertibleValues implements ConvertibleValues<Object>
 
     private final Map<String, Object> headers;
     private final ConversionService<?> conversionService;
-    private final List<ConversionError> conversionErrors = new ArrayList<>();
+    private List<ConversionError> conversionErrors;
 
     /**
      * Default constructor.
@@ -60,8 +63,13 @@ public class RabbitHeaderConvertibleValues implements ConvertibleValues<Object>
     public <T> Optional<T> get(CharSequence name, ArgumentConversionContext<T> conversionContext) {
         Object value = headers.get(name.toString());
         if (value != null) {
-            Optional<T> converted = conversionService.convert(value.toString(), conversionContext);
-            conversionContext.getLastError().ifPresent(conversionErrors::add);
+            Optional<T> converted = convert(value, conversionContext, conversionService);
+            conversionContext.getLastError().ifPresent(error -> {
+                if (conversionErrors == null) {
+                    conversionErrors = new ArrayList<>();
+                }
+                conversionErrors.add(error);
+            });
             return converted;
         }
         return Optional.empty();
@@ -71,6 +79,31 @@ public class RabbitHeaderConvertibleValues implements ConvertibleValues<Object>
      * @return Any conversion errors that may have occurred
      */
     public List<ConversionError> getConversionErrors() {
-        return conversionErrors;
+        return conversionErrors != null ? conversionErrors : Collections.emptyList();
+    }
+
+    /**
+     * Converts a single header value to the requested type. A {@link LongString}
+     * is returned as is when bytes are requested and is otherwise decoded. Values
+     * are only converted from their string form if no direct conversion exists.
+     *
+     * @param value The header value
+     * @param conversionContext The conversion context
+     * @param conversionService The conversion service
+     * @param <T> The type to convert to
+     * @return The converted value
+     */
+    public static <T> Optional<T> convert(Object value, ArgumentConversionContext<T> conversionContext, ConversionService<?> conversionService) {
+        if (value instanceof LongString) {
+            if (conversionContext.getArgument().getType() == byte[].class) {
+                return Optional.of((T) ((LongString) value).getBytes());
+            }
+            value = value.toString();
+        }
+        Optional<T> converted = conversionService.convert(value, conversionContext);
+        if (!converted.isPresent() && !(value instanceof String)) {
+            converted = conversionService.convert(value.toString(), conversionContext);
+        }
+        return converted;
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.bind;
+
+import io.micronaut.configuration.rabbitmq.serdes.RabbitMessageSerDes;
+import io.micronaut.configuration.rabbitmq.serdes.RabbitMessageSerDesRegistry;
+import io.micronaut.core.bind.ArgumentBinder;
+import io.micronaut.core.convert.ArgumentConversionContext;
+import io.micronaut.core.type.Argument;
+
+import javax.inject.Singleton;
+import java.util.Optional;
+
+/**
+ * Binds an argument of type {@link LazyBody} from the {@link RabbitConsumerState}.
+ * The serdes is resolved once for each argument, and the body is not
+ * deserialized until it is requested.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Singleton
+public class RabbitLazyBodyBinder implements RabbitTypeArgumentBinder<LazyBody> {
+
+    private final RabbitMessageSerDesRegistry serDesRegistry;
+
+    /**
+     * Default constructor.
+     *
+     * @param serDesRegistry The registry to get a deserializer
+     */
+    public RabbitLazyBodyBinder(RabbitMessageSerDesRegistry serDesRegistry) {
+        this.serDesRegistry = serDesRegistry;
+    }
+
+    @Override
+    public Argument<LazyBody> argumentType() {
+        return Argument.of(LazyBody.class);
+    }
+
+    @Override
+    public ArgumentBinder<LazyBody, RabbitConsumerState> forArgument(Argument<LazyBody> argument) {
+        Class<Object> bodyType = (Class<Object>) argument.getFirstTypeVariable()
+                .<Class<?>>map(Argument::getType)
+                .orElse(Object.class);
+        Optional<RabbitMessageSerDes<Object>> serDes = serDesRegistry.findSerdes(bodyType);
+        return (context, messageState) -> () -> serDes.map(s -> new LazyBody<>(messageState, s, bodyType));
+    }
+
+    @Override
+    public BindingResult<LazyBody> bind(ArgumentConversionContext<LazyBody> context, RabbitConsumerState messageState) {
+        return forArgument(context.getArgument()).bind(context, messageState);
+    }
+}
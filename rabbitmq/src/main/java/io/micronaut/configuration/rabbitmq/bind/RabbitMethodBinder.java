@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.bind;
+
+import io.micronaut.core.bind.ArgumentBinder;
+import io.micronaut.core.bind.exceptions.UnsatisfiedArgumentException;
+import io.micronaut.core.convert.ArgumentConversionContext;
+import io.micronaut.core.convert.ConversionContext;
+import io.micronaut.core.convert.ConversionError;
+import io.micronaut.core.convert.exceptions.ConversionErrorException;
+import io.micronaut.core.type.Argument;
+import io.micronaut.core.type.Executable;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+
+/**
+ * Binds the arguments of a consumer method from the {@link RabbitConsumerState}.
+ * The binder of each argument is resolved once when the method binder is created
+ * rather than for every message.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class RabbitMethodBinder {
+
+    private final Argument<Object>[] arguments;
+    private final ArgumentBinder<Object, RabbitConsumerState>[] binders;
+    private final boolean[] nullable;
+
+    /**
+     * Default constructor.
+     *
+     * @param method The method to bind
+     * @param binderRegistry The registry to resolve the binders of the arguments
+     */
+    public RabbitMethodBinder(Executable<?, ?> method, RabbitBinderRegistry binderRegistry) {
+        this.arguments = (Argument<Object>[]) method.getArguments();
+        this.binders = new ArgumentBinder[arguments.length];
+        this.nullable = new boolean[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            binders[i] = binderRegistry.findArgumentBinder(arguments[i]);
+            nullable[i] = arguments[i].getAnnotationMetadata().hasAnnotation(Nullable.class);
+        }
+    }
+
+    /**
+     * Binds the arguments of the method.
+     *
+     * @param state The message state
+     * @return The bound arguments
+     * @throws UnsatisfiedArgumentException If a required argument could not be bound
+     * @throws ConversionErrorException If an argument could not be converted
+     */
+    public Object[] bind(RabbitConsumerState state) {
+        Object[] boundArguments = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            Argument<Object> argument = arguments[i];
+            ArgumentConversionContext<Object> conversionContext = ConversionContext.of(argument);
+            ArgumentBinder.BindingResult<Object> bindingResult = binders[i].bind(conversionContext, state);
+            // the value of a binding result may be computed on every call
+            Optional<Object> value = bindingResult.getValue();
+            if (value.isPresent() && bindingResult.isSatisfied()) {
+                boundArguments[i] = value.get();
+            } else if (!nullable[i]) {
+                Optional<ConversionError> lastError = conversionContext.getLastError();
+                if (lastError.isPresent()) {
+                    throw new ConversionErrorException(argument, lastError.get());
+                }
+                throw new UnsatisfiedArgumentException(argument);
+            }
+        }
+        return boundArguments;
+    }
+}
@@ -81,6 +81,14 @@ public class RabbitPropertyBinder implements RabbitAnnotatedArgumentBinder<Rabbi
         return properties.containsKey(getParameterName(context));
     }
 
+    /**
+     * @param name The name of the property
+     * @return A function that reads the property from the message properties, if the name is supported
+     */
+    public Optional<Function<AMQP.BasicProperties, Object>> findProperty(String name) {
+        return Optional.ofNullable(properties.get(name));
+    }
+
     private String getParameterName(ArgumentConversionContext<Object> context) {
         return context.getAnnotationMetadata().getValue(RabbitProperty.class, String.class).orElse(context.getArgument().getName());
     }
@@ -29,7 +29,7 @@ import java.io.IOException;
  * @author James Kleeh
  * @since 1.1.0
  */
-public interface ChannelPool {
+public interface ChannelPool extends AutoCloseable {
 
     /**
      * Retrieves a channel from the pool. The channel must be returned to the
@@ -47,4 +47,12 @@ public interface ChannelPool {
      * @param channel The channel
      */
     void returnChannel(Channel channel);
+
+    /**
+     * Closes the channels waiting in the pool. Channels that were retrieved
+     * from the pool remain the responsibility of their owner.
+     */
+    @Override
+    default void close() {
+    }
 }
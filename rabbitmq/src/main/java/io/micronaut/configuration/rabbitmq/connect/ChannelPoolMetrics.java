@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.connect;
+
+/**
+ * Records metrics of the operations of a {@link DefaultChannelPool}. The state of the
+ * pool itself is available from the pool.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public interface ChannelPoolMetrics {
+
+    /**
+     * Metrics that are discarded.
+     */
+    ChannelPoolMetrics NOOP = new ChannelPoolMetrics() { };
+
+    /**
+     * @param nanos The time taken to retrieve a channel, including creating it if needed
+     */
+    default void acquired(long nanos) {
+    }
+
+    /**
+     * Invoked when a channel is created.
+     */
+    default void created() {
+    }
+
+    /**
+     * Invoked when a channel that was closed is removed from the pool.
+     */
+    default void discarded() {
+    }
+
+    /**
+     * Invoked when an open channel is closed because it was idle for too long.
+     */
+    default void evicted() {
+    }
+
+    /**
+     * Invoked when an open channel is closed because it reached its max lifetime.
+     */
+    default void retired() {
+    }
+}
@@ -19,14 +19,27 @@ package io.micronaut.configuration.rabbitmq.connect;
 import com.rabbitmq.client.AlreadyClosedException;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ShutdownSignalException;
+import io.micronaut.context.annotation.Primary;
+import io.micronaut.scheduling.TaskExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Iterator;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -36,39 +49,130 @@ import java.util.concurrent.atomic.AtomicLong;
  * a new channel will be created and returned. The maximum number of channels
  * should be the maximum number of concurrent operations.
  *
+ * A number of channels can be opened in advance with {@link #warmUp()} so
+ * the first operations do not wait for channels to be opened. Channels that
+ * are closed by an error are then replaced in the background to keep that
+ * number of channels waiting in the pool.
+ *
+ * The most recently returned channel is reused first, so channels that are
+ * not needed after a burst stay idle and are closed by {@link #maintain()}
+ * once they have been idle for longer than the idle timeout. Channels older
+ * than the max lifetime are closed instead of being reused.
+ *
+ * This bean is the pool of the default connection. The pools of named
+ * connections are created by {@link RabbitConnectionFactory}.
+ *
  * @author James Kleeh
  * @since 1.1.0
  */
 @Singleton
+@Primary
 public class DefaultChannelPool implements AutoCloseable, ChannelPool {
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultChannelPool.class);
 
-    private final LinkedBlockingQueue<Channel> channels = new LinkedBlockingQueue<>();
+    private final LinkedBlockingDeque<IdleChannel> channels = new LinkedBlockingDeque<>();
+    private final Map<Channel, Long> createdAt = new ConcurrentHashMap<>();
+    private final String name;
     private final Connection connection;
+    private final RabbitChannelPoolConfiguration configuration;
+    private final ExecutorService executorService;
     private final AtomicLong totalChannels = new AtomicLong(0);
+    private volatile ChannelPoolMetrics metrics = ChannelPoolMetrics.NOOP;
+    private volatile boolean closed;
 
     /**
-     * Default constructor.
+     * Creates a pool without channels opened in advance.
      *
      * @param connection The connection to create channels with
      */
     public DefaultChannelPool(Connection connection) {
+        this(RabbitConnectionFactoryConfig.DEFAULT_NAME, connection, new RabbitChannelPoolConfiguration(), null);
+    }
+
+    /**
+     * Default constructor.
+     *
+     * @param connection The connection to create channels with
+     * @param configuration The configuration of the pool
+     * @param executorService The executor to open channels in advance on
+     */
+    @Inject
+    public DefaultChannelPool(Connection connection,
+                              RabbitChannelPoolConfiguration configuration,
+                              @Named(TaskExecutors.IO) ExecutorService executorService) {
+        this(RabbitConnectionFactoryConfig.DEFAULT_NAME, connection, configuration, executorService);
+    }
+
+    /**
+     * @param name The name of the connection
+     * @param connection The connection to create channels with
+     * @param configuration The configuration of the pool
+     * @param executorService The executor to open channels in advance on. If null, channels are opened
+     *                        in advance by the thread warming up the pool and are not replaced
+     */
+    public DefaultChannelPool(String name,
+                              Connection connection,
+                              RabbitChannelPoolConfiguration configuration,
+                              @Nullable ExecutorService executorService) {
+        this.name = name;
         this.connection = connection;
+        this.configuration = configuration;
+        this.executorService = executorService;
+    }
+
+    /**
+     * @return The name of the connection the channels are created with
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param metrics The metrics to record the operations of the pool with
+     */
+    public void setMetrics(ChannelPoolMetrics metrics) {
+        this.metrics = metrics != null ? metrics : ChannelPoolMetrics.NOOP;
+    }
+
+    /**
+     * @return The number of open channels created by the pool
+     */
+    public long getTotalChannels() {
+        return totalChannels.get();
+    }
+
+    /**
+     * @return The number of channels waiting in the pool
+     */
+    public int getIdleChannels() {
+        return channels.size();
+    }
+
+    /**
+     * @return The number of channels retrieved from the pool that have not been returned
+     */
+    public long getActiveChannels() {
+        return Math.max(0, totalChannels.get() - channels.size());
     }
 
     @Override
     public Channel getChannel() throws IOException {
+        long started = System.nanoTime();
         Channel channel = null;
         while (channel == null) {
-            channel = channels.poll();
-            if (channel == null) {
-                channel = createChannel();
-            } else if (!channel.isOpen()) {
-                channel = null;
-                totalChannels.decrementAndGet();
+            IdleChannel idle = channels.pollFirst();
+            if (idle == null) {
+                channel = openChannel();
+            } else if (!idle.channel.isOpen()) {
+                discard(idle.channel);
+            } else if (isExpired(idle.channel, started)) {
+                retire(idle.channel);
+            } else {
+                channel = idle.channel;
             }
         }
+        metrics.acquired(System.nanoTime() - started);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Retrieved channel [{}] from the pool", channel.toString());
         }
@@ -78,7 +182,9 @@ public class DefaultChannelPool implements AutoCloseable, ChannelPool {
     @Override
     public void returnChannel(Channel channel) {
         if (channel.isOpen()) {
-            if (channels.offer(channel)) {
+            if (isExpired(channel, System.nanoTime())) {
+                retire(channel);
+            } else if (channels.offerFirst(new IdleChannel(channel))) {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Returned channel [{}] to the pool", channel.toString());
                 }
@@ -89,10 +195,81 @@ public class DefaultChannelPool implements AutoCloseable, ChannelPool {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Attempted to return a closed channel to the pool [{}]. Channel has been ignored", channel.toString());
             }
-            totalChannels.decrementAndGet();
+            discard(channel);
         }
     }
 
+    /**
+     * Closes the channels that have been idle for longer than the idle timeout, while
+     * keeping the minimum number of idle channels, and the idle channels that are older
+     * than the max lifetime. Channels that were closed while waiting in the pool are
+     * removed. Channels are then opened until the minimum number of channels are idle.
+     * Callers retrieving and returning channels are not blocked while this runs.
+     */
+    public void maintain() {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        Duration idleTimeout = configuration.getIdleTimeout();
+        long idleNanos = idleTimeout != null ? idleTimeout.toNanos() : 0;
+        int minIdle = getMinIdle();
+        int evicted = 0;
+        // the least recently returned channels are at the end of the deque
+        Iterator<IdleChannel> iterator = channels.descendingIterator();
+        while (iterator.hasNext() && !closed) {
+            IdleChannel idle = iterator.next();
+            if (!idle.channel.isOpen()) {
+                if (channels.removeLastOccurrence(idle)) {
+                    discard(idle.channel);
+                }
+            } else if (isExpired(idle.channel, now)) {
+                if (channels.removeLastOccurrence(idle)) {
+                    closeChannel(idle.channel);
+                    metrics.retired();
+                }
+            } else if (idleNanos > 0 && now - idle.returnedAt > idleNanos && channels.size() > minIdle) {
+                if (channels.removeLastOccurrence(idle)) {
+                    closeChannel(idle.channel);
+                    metrics.evicted();
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0 && LOG.isDebugEnabled()) {
+            LOG.debug("Closed {} idle channel(s) of the connection [{}]", evicted, name);
+        }
+        while (!closed && channels.size() < minIdle) {
+            try {
+                openIdleChannel();
+            } catch (RuntimeException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn(String.format("Failed to open an idle channel of the connection [%s]", name), e.getCause() != null ? e.getCause() : e);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Opens channels in parallel until the configured initial number of channels
+     * are waiting in the pool. Channels held by listeners are not counted, since they
+     * are not available to other callers. The channels are put in confirm mode if configured.
+     *
+     * @return A future that completes once the channels are waiting in the pool
+     */
+    public CompletableFuture<Void> warmUp() {
+        int missing = configuration.getInitialSize() - channels.size();
+        if (missing <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<?>[] opened = new CompletableFuture<?>[missing];
+        for (int i = 0; i < missing; i++) {
+            opened[i] = executorService != null ? CompletableFuture.runAsync(this::openIdleChannel, executorService) : CompletableFuture.runAsync(this::openIdleChannel, Runnable::run);
+        }
+        return CompletableFuture.allOf(opened);
+    }
+
     /**
      * Creates a channel.
      *
@@ -102,24 +279,134 @@ public class DefaultChannelPool implements AutoCloseable, ChannelPool {
     protected Channel createChannel() throws IOException {
         Channel channel = connection.createChannel();
         totalChannels.incrementAndGet();
+        metrics.created();
+        return channel;
+    }
+
+    /**
+     * Creates a channel and registers a listener to replace it if it is closed by an error.
+     */
+    private Channel openChannel() throws IOException {
+        Channel channel = createChannel();
+        createdAt.put(channel, System.nanoTime());
+        channel.addShutdownListener(cause -> channelClosed(channel, cause));
         return channel;
     }
 
+    private void openIdleChannel() {
+        Channel channel;
+        try {
+            channel = openChannel();
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+        if (configuration.isConfirmSelect()) {
+            try {
+                channel.confirmSelect();
+            } catch (IOException e) {
+                closeChannel(channel);
+                throw new CompletionException(e);
+            }
+        }
+        returnChannel(channel);
+    }
+
+    /**
+     * Removes a channel that was closed by an error from the pool and opens a new one
+     * in the background if fewer than the minimum number of idle channels are waiting. Channels
+     * closed by the application, or together with their connection, are not replaced.
+     * A connection that recovers automatically recovers its channels as well.
+     */
+    private void channelClosed(Channel channel, ShutdownSignalException cause) {
+        if (closed || cause.isHardError() || cause.isInitiatedByApplication()) {
+            return;
+        }
+        if (channels.removeIf(idle -> idle.channel == channel)) {
+            discard(channel);
+        }
+        if (executorService != null && channels.size() < getMinIdle()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("The channel [{}] was closed by an error. A new channel will be opened", channel.toString());
+            }
+            try {
+                // the listener is executed by the connection, which must not wait for a new channel
+                executorService.execute(this::replenish);
+            } catch (RejectedExecutionException e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Could not schedule a channel to be opened", e);
+                }
+            }
+        }
+    }
+
+    private void replenish() {
+        if (closed || channels.size() >= getMinIdle()) {
+            return;
+        }
+        try {
+            openIdleChannel();
+        } catch (RuntimeException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(String.format("Failed to open a channel to replace a closed channel of the connection [%s]", name), e.getCause() != null ? e.getCause() : e);
+            }
+        }
+    }
+
     @PreDestroy
     @Override
     public void close() {
+        closed = true;
         if (totalChannels.get() > channels.size()) {
             if (LOG.isWarnEnabled()) {
                 LOG.warn("Channel pool is being closed without all channels being returned! Any channels not returned are the responsibility of the owner to close. Total channels [{}] - Returned Channels [{}]", totalChannels.get(), channels.size());
             }
         }
-        final Iterator<Channel> iterator = channels.iterator();
+        final Iterator<IdleChannel> iterator = channels.iterator();
         while (iterator.hasNext()) {
-            closeChannel(iterator.next());
+            closeChannel(iterator.next().channel);
             iterator.remove();
         }
     }
 
+    private int getMinIdle() {
+        return Math.max(configuration.getMinIdle(), configuration.getInitialSize());
+    }
+
+    private boolean isExpired(Channel channel, long now) {
+        Duration maxLifetime = configuration.getMaxLifetime();
+        if (maxLifetime == null || maxLifetime.isZero() || maxLifetime.isNegative()) {
+            return false;
+        }
+        Long created = createdAt.get(channel);
+        return created != null && now - created > maxLifetime.toNanos();
+    }
+
+    /**
+     * Closes a channel that is past its max lifetime. The channel is closed in the
+     * background when possible because closing waits for the broker to respond.
+     */
+    private void retire(Channel channel) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("The channel [{}] has reached its max lifetime and will be closed", channel.toString());
+        }
+        metrics.retired();
+        if (executorService != null) {
+            try {
+                executorService.execute(() -> closeChannel(channel));
+                return;
+            } catch (RejectedExecutionException e) {
+                // close the channel on the calling thread
+            }
+        }
+        closeChannel(channel);
+    }
+
+    private void discard(Channel channel) {
+        createdAt.remove(channel);
+        totalChannels.decrementAndGet();
+        metrics.discarded();
+    }
+
     private void closeChannel(Channel channel) {
         if (channel.isOpen()) {
             try {
@@ -132,6 +419,20 @@ public class DefaultChannelPool implements AutoCloseable, ChannelPool {
                 }
             }
         }
+        createdAt.remove(channel);
         totalChannels.decrementAndGet();
     }
+
+    /**
+     * A channel waiting in the pool and the time it was returned.
+     */
+    private static final class IdleChannel {
+
+        private final Channel channel;
+        private final long returnedAt = System.nanoTime();
+
+        private IdleChannel(Channel channel) {
+            this.channel = channel;
+        }
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.connect;
+
+import com.rabbitmq.client.ConnectionFactory;
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Parameter;
+
+import javax.annotation.Nullable;
+
+/**
+ * The configuration of an additional named connection. Each entry under
+ * {@code rabbitmq.servers} creates a connection with its own
+ * {@link ChannelPool}, which clients and listeners select by name.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@EachProperty("rabbitmq.servers")
+public class NamedRabbitConnectionFactoryConfig extends ConnectionFactory {
+
+    private final String name;
+    private String consumerExecutor;
+
+    /**
+     * Default constructor.
+     *
+     * @param name The name of the connection
+     */
+    public NamedRabbitConnectionFactoryConfig(@Parameter String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The name of the connection
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The name of the executor service consumers of the connection are executed on
+     */
+    @Nullable
+    public String getConsumerExecutor() {
+        return consumerExecutor;
+    }
+
+    /**
+     * @param consumerExecutor The name of the executor service consumers of the connection are executed on
+     */
+    public void setConsumerExecutor(@Nullable String consumerExecutor) {
+        this.consumerExecutor = consumerExecutor;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.connect;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configures the {@link DefaultChannelPool} of every connection.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@ConfigurationProperties("rabbitmq.channel-pool")
+public class RabbitChannelPoolConfiguration {
+
+    /**
+     * The default initial size value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_INITIAL_SIZE = 0;
+
+    /**
+     * The default confirm select value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_CONFIRM_SELECT = false;
+
+    /**
+     * The default minimum idle value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MIN_IDLE = 0;
+
+    private int initialSize = DEFAULT_INITIAL_SIZE;
+    private boolean confirmSelect = DEFAULT_CONFIRM_SELECT;
+    private Duration warmUpTimeout = Duration.ofSeconds(30);
+    private int minIdle = DEFAULT_MIN_IDLE;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private Duration maxLifetime;
+    private Duration maintenanceInterval = Duration.ofSeconds(30);
+
+    /**
+     * @return The number of channels opened when the application starts
+     */
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    /**
+     * Default value ({@value #DEFAULT_INITIAL_SIZE}). Channels that are closed by an
+     * error are replaced in the background while the pool has fewer idle channels.
+     *
+     * @param initialSize The number of channels opened when the application starts
+     */
+    public void setInitialSize(int initialSize) {
+        this.initialSize = initialSize;
+    }
+
+    /**
+     * @return Whether channels opened in advance are put in confirm mode
+     */
+    public boolean isConfirmSelect() {
+        return confirmSelect;
+    }
+
+    /**
+     * Default value ({@value #DEFAULT_CONFIRM_SELECT}). Enable when most messages are
+     * published with publisher confirms, so the first publish on each channel does
+     * not wait for confirm mode to be enabled.
+     *
+     * @param confirmSelect Whether channels opened in advance are put in confirm mode
+     */
+    public void setConfirmSelect(boolean confirmSelect) {
+        this.confirmSelect = confirmSelect;
+    }
+
+    /**
+     * @return The maximum time startup waits for the channels to be opened
+     */
+    public Duration getWarmUpTimeout() {
+        return warmUpTimeout;
+    }
+
+    /**
+     * Default value (30s).
+     *
+     * @param warmUpTimeout The maximum time startup waits for the channels to be opened
+     */
+    public void setWarmUpTimeout(Duration warmUpTimeout) {
+        this.warmUpTimeout = warmUpTimeout;
+    }
+
+    /**
+     * @return The number of idle channels that are never evicted
+     */
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * Default value ({@value #DEFAULT_MIN_IDLE}). The initial size is used instead
+     * if it is greater. Channels that are closed or retired are replaced in the
+     * background while the pool has fewer idle channels.
+     *
+     * @param minIdle The number of idle channels that are never evicted
+     */
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    /**
+     * @return The time after which a channel waiting in the pool is closed
+     */
+    @Nullable
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Default value (10m). Set to 0 to keep idle channels open.
+     *
+     * @param idleTimeout The time after which a channel waiting in the pool is closed
+     */
+    public void setIdleTimeout(@Nullable Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * @return The time after which a channel is closed instead of being reused
+     */
+    @Nullable
+    public Duration getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    /**
+     * Not set by default. Channels in use are closed once they are returned.
+     * Set to 0 to reuse channels for as long as they are open.
+     *
+     * @param maxLifetime The time after which a channel is closed instead of being reused
+     */
+    public void setMaxLifetime(@Nullable Duration maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    /**
+     * @return The interval at which idle channels are validated and evicted
+     */
+    public Duration getMaintenanceInterval() {
+        return maintenanceInterval;
+    }
+
+    /**
+     * Default value (30s).
+     *
+     * @param maintenanceInterval The interval at which idle channels are validated and evicted
+     */
+    public void setMaintenanceInterval(Duration maintenanceInterval) {
+        this.maintenanceInterval = maintenanceInterval;
+    }
+}
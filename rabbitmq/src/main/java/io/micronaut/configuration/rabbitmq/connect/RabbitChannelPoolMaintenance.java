@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.connect;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.scheduling.annotation.Scheduled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Periodically runs {@link DefaultChannelPool#maintain()} on every channel
+ * pool that has been created, so idle channels are validated and evicted
+ * without blocking the callers of the pools.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Singleton
+public class RabbitChannelPoolMaintenance implements BeanCreatedEventListener<ChannelPool> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitChannelPoolMaintenance.class);
+
+    private final List<DefaultChannelPool> pools = new CopyOnWriteArrayList<>();
+
+    @Override
+    public ChannelPool onCreated(BeanCreatedEvent<ChannelPool> event) {
+        ChannelPool pool = event.getBean();
+        if (pool instanceof DefaultChannelPool) {
+            pools.add((DefaultChannelPool) pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Maintains the channel pools.
+     */
+    @Scheduled(fixedDelay = "${rabbitmq.channel-pool.maintenance-interval:30s}",
+               initialDelay = "${rabbitmq.channel-pool.maintenance-interval:30s}")
+    public void maintain() {
+        for (DefaultChannelPool pool : pools) {
+            try {
+                pool.maintain();
+            } catch (RuntimeException e) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(String.format("Failed to maintain the channel pool of the connection [%s]", pool.getName()), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.connect;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Opens the initial channels of every {@link DefaultChannelPool} when the
+ * application starts, so the first operations after a deployment do not
+ * wait for channels to be opened. Startup waits for the channels up to the
+ * configured timeout. Failing to open channels does not prevent startup.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Singleton
+@Requires(property = "rabbitmq.channel-pool.initial-size")
+public class RabbitChannelPoolWarmUp implements ApplicationEventListener<StartupEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitChannelPoolWarmUp.class);
+
+    private final BeanContext beanContext;
+    private final RabbitChannelPoolConfiguration configuration;
+
+    /**
+     * Default constructor.
+     *
+     * @param beanContext The bean context to retrieve the channel pools from
+     * @param configuration The configuration of the pools
+     */
+    public RabbitChannelPoolWarmUp(BeanContext beanContext, RabbitChannelPoolConfiguration configuration) {
+        this.beanContext = beanContext;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        if (configuration.getInitialSize() <= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        List<CompletableFuture<Void>> pools = beanContext.getBeansOfType(ChannelPool.class).stream()
+                .filter(DefaultChannelPool.class::isInstance)
+                .map(pool -> ((DefaultChannelPool) pool).warmUp())
+                .collect(Collectors.toList());
+        try {
+            CompletableFuture.allOf(pools.toArray(new CompletableFuture<?>[0]))
+                    .get(configuration.getWarmUpTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Opened {} channel(s) in each of {} channel pool(s) in {}ms", configuration.getInitialSize(), pools.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        } catch (TimeoutException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("The channel pools were not warmed up within {}ms. The remaining channels are opened in the background", configuration.getWarmUpTimeout().toMillis());
+            }
+        } catch (ExecutionException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("Failed to open the initial channels of a channel pool", e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.connect;
+
+import com.rabbitmq.client.BlockedListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tracks whether the broker has blocked a connection from publishing, which
+ * happens while a memory or disk alarm is in effect. A blocked connection
+ * still accepts publishes, however the broker stops reading from it, so any
+ * thread that publishes hangs until the alarm clears.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class RabbitConnectionBlockedListener implements BlockedListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitConnectionBlockedListener.class);
+
+    private final String name;
+    private volatile CompletableFuture<Void> unblocked = CompletableFuture.completedFuture(null);
+    private volatile String reason;
+
+    /**
+     * Default constructor.
+     *
+     * @param name The name of the connection
+     */
+    public RabbitConnectionBlockedListener(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The name of the connection
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Whether the connection is blocked
+     */
+    public boolean isBlocked() {
+        return !unblocked.isDone();
+    }
+
+    /**
+     * @return The reason given by the broker for blocking the connection, or null if it is not blocked
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * @return A future that completes once the connection is no longer blocked
+     */
+    public CompletableFuture<Void> getUnblocked() {
+        return unblocked;
+    }
+
+    @Override
+    public synchronized void handleBlocked(String reason) {
+        this.reason = reason;
+        if (unblocked.isDone()) {
+            unblocked = new CompletableFuture<>();
+        }
+        if (LOG.isWarnEnabled()) {
+            LOG.warn("The connection [{}] was blocked by the broker: {}", name, reason);
+        }
+    }
+
+    @Override
+    public synchronized void handleUnblocked() {
+        reason = null;
+        if (LOG.isInfoEnabled()) {
+            LOG.info("The connection [{}] was unblocked by the broker", name);
+        }
+        unblocked.complete(null);
+    }
+}
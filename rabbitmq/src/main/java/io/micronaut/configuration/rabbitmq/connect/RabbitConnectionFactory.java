@@ -18,9 +18,15 @@ package io.micronaut.configuration.rabbitmq.connect;
 
 import com.rabbitmq.client.Connection;
 import com.rabbitmq.client.ConnectionFactory;
+import io.micronaut.context.BeanContext;
 import io.micronaut.context.annotation.Bean;
+import io.micronaut.context.annotation.EachBean;
 import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.context.annotation.Primary;
 import io.micronaut.context.exceptions.BeanInstantiationException;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.inject.qualifiers.Qualifiers;
 import io.micronaut.scheduling.TaskExecutors;
 
 import javax.inject.Named;
@@ -30,7 +36,9 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeoutException;
 
 /**
- * A factory for creating a connection to RabbitMQ.
+ * A factory for creating a connection to RabbitMQ. The default connection is
+ * configured under {@code rabbitmq} and every named connection under
+ * {@code rabbitmq.servers} has its own connection and {@link ChannelPool}.
  *
  * @author James Kleeh
  * @since 1.1.0
@@ -38,19 +46,87 @@ import java.util.concurrent.TimeoutException;
 @Factory
 public class RabbitConnectionFactory {
 
+    /**
+     * @return The listener that tracks whether the default connection is blocked
+     */
+    @Singleton
+    @Primary
+    RabbitConnectionBlockedListener blockedListener() {
+        return new RabbitConnectionBlockedListener(RabbitConnectionFactoryConfig.DEFAULT_NAME);
+    }
+
+    /**
+     * @param connectionFactory The configuration of the named connection
+     * @return The listener that tracks whether the named connection is blocked
+     */
+    @EachBean(NamedRabbitConnectionFactoryConfig.class)
+    RabbitConnectionBlockedListener namedBlockedListener(@Parameter NamedRabbitConnectionFactoryConfig connectionFactory) {
+        return new RabbitConnectionBlockedListener(connectionFactory.getName());
+    }
+
     /**
      * @param connectionFactory The factory to create the connection
      * @param executorService The executor service consumers will be executed on
+     * @param blockedListener The listener to notify when the broker blocks the connection
      * @return The connection
      */
     @Bean(preDestroy = "close")
     @Singleton
+    @Primary
     Connection connection(ConnectionFactory connectionFactory,
-                          @Named(TaskExecutors.MESSAGE_CONSUMER) ExecutorService executorService) {
+                          @Named(TaskExecutors.MESSAGE_CONSUMER) ExecutorService executorService,
+                          RabbitConnectionBlockedListener blockedListener) {
+        Connection connection;
         try {
-            return connectionFactory.newConnection(executorService);
+            connection = connectionFactory.newConnection(executorService);
         } catch (IOException | TimeoutException e) {
             throw new BeanInstantiationException("Error creating connection to RabbitMQ", e);
         }
+        connection.addBlockedListener(blockedListener);
+        return connection;
+    }
+
+    /**
+     * @param connectionFactory The configuration of the named connection
+     * @param blockedListener The listener to notify when the broker blocks the connection
+     * @param beanContext The bean context to retrieve the consumer executor from
+     * @return The named connection
+     */
+    @Bean(preDestroy = "close")
+    @EachBean(NamedRabbitConnectionFactoryConfig.class)
+    Connection namedConnection(@Parameter NamedRabbitConnectionFactoryConfig connectionFactory,
+                               @Parameter RabbitConnectionBlockedListener blockedListener,
+                               BeanContext beanContext) {
+        String consumerExecutor = connectionFactory.getConsumerExecutor();
+        String executorName = StringUtils.isEmpty(consumerExecutor) ? TaskExecutors.MESSAGE_CONSUMER : consumerExecutor;
+        ExecutorService executorService = beanContext.findBean(ExecutorService.class, Qualifiers.byName(executorName))
+                .orElseThrow(() -> new BeanInstantiationException(String.format("Could not find an executor service named [%s] for the connection [%s]", executorName, connectionFactory.getName())));
+        Connection connection;
+        try {
+            connection = connectionFactory.newConnection(executorService, connectionFactory.getName());
+        } catch (IOException | TimeoutException e) {
+            throw new BeanInstantiationException(String.format("Error creating the connection [%s] to RabbitMQ", connectionFactory.getName()), e);
+        }
+        connection.addBlockedListener(blockedListener);
+        return connection;
+    }
+
+    /**
+     * The pool is configured from the {@code rabbitmq.channel-pool} properties, which are
+     * shared by the pools of all connections.
+     *
+     * @param connectionFactory The configuration of the named connection
+     * @param connection The named connection
+     * @param configuration The configuration of the pool
+     * @param executorService The executor to open channels in advance on
+     * @return The pool of channels of the named connection
+     */
+    @Bean(preDestroy = "close")
+    @EachBean(NamedRabbitConnectionFactoryConfig.class)
+    ChannelPool namedChannelPool(@Parameter NamedRabbitConnectionFactoryConfig connectionFactory,
+                                 @Parameter Connection connection,
+                                 RabbitChannelPoolConfiguration configuration,
+                                 @Named(TaskExecutors.IO) ExecutorService executorService) {
+        return new DefaultChannelPool(connectionFactory.getName(), connection, configuration, executorService);
     }
 }
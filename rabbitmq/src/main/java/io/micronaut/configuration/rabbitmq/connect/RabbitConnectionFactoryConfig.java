@@ -18,16 +18,24 @@ package io.micronaut.configuration.rabbitmq.connect;
 
 import com.rabbitmq.client.ConnectionFactory;
 import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Primary;
 
 /**
  * The default RabbitMQ configuration class.
  *
- * Allows RabbitMQ client to leverage Micronaut properties configuration
+ * Allows RabbitMQ client to leverage Micronaut properties configuration. This
+ * is the configuration of the default connection. Additional connections are
+ * configured with {@link NamedRabbitConnectionFactoryConfig}.
  *
  * @author benrhine
  * @since 1.0
  */
 @ConfigurationProperties("rabbitmq")
+@Primary
 public class RabbitConnectionFactoryConfig extends ConnectionFactory {
 
+    /**
+     * The name of the default connection.
+     */
+    public static final String DEFAULT_NAME = "default";
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.endpoint;
+
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerContainer;
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerRegistry;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.management.endpoint.annotation.Selector;
+import io.micronaut.management.endpoint.annotation.Write;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * An endpoint to list the RabbitMQ listeners and to pause, resume or
+ * rescale them at runtime.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Requires(classes = Endpoint.class)
+@Endpoint(id = RabbitListenersEndpoint.NAME, defaultSensitive = true)
+public class RabbitListenersEndpoint {
+
+    /**
+     * The name of the endpoint.
+     */
+    public static final String NAME = "rabbitlisteners";
+
+    private final RabbitListenerRegistry listenerRegistry;
+
+    /**
+     * Default constructor.
+     *
+     * @param listenerRegistry The registry of listeners
+     */
+    public RabbitListenersEndpoint(RabbitListenerRegistry listenerRegistry) {
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    /**
+     * @return The state of every listener
+     */
+    @Read
+    public List<Map<String, Object>> getListeners() {
+        return listenerRegistry.getListeners().stream()
+                .map(this::describe)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param id The identifier of the listener
+     * @return The state of the listener
+     */
+    @Read
+    public Map<String, Object> getListener(@Selector String id) {
+        return listenerRegistry.findListener(id)
+                .map(this::describe)
+                .orElse(null);
+    }
+
+    /**
+     * Pauses, resumes or changes the concurrency of a listener.
+     *
+     * @param id The identifier of the listener
+     * @param paused Whether the listener should be paused
+     * @param concurrency The number of consumers of the listener
+     * @return The state of the listener, or null if the listener does not exist
+     * @throws HttpStatusException With a bad request status if nothing is changed or the concurrency is invalid
+     */
+    @Write
+    public Map<String, Object> updateListener(@Selector String id,
+                                              @Nullable Boolean paused,
+                                              @Nullable Integer concurrency) {
+        return listenerRegistry.findListener(id).map(listener -> {
+            if (paused == null && concurrency == null) {
+                throw new HttpStatusException(HttpStatus.BAD_REQUEST, "Either paused or concurrency must be provided");
+            }
+            if (concurrency != null) {
+                try {
+                    listener.setConcurrency(concurrency);
+                } catch (IllegalArgumentException e) {
+                    throw new HttpStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+                }
+            }
+            if (paused != null) {
+                if (paused) {
+                    listener.pause();
+                } else {
+                    listener.resume();
+                }
+            }
+            return describe(listener);
+        }).orElse(null);
+    }
+
+    private Map<String, Object> describe(RabbitListenerContainer listener) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", listener.getId());
+        description.put("queue", listener.getQueue());
+        description.put("clientTag", listener.getClientTag());
+        description.put("paused", listener.isPaused());
+        description.put("tripped", listener.isTripped());
+        description.put("concurrency", listener.getConcurrency());
+        description.put("activeConsumers", listener.getActiveConsumers());
+        return description;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.executor;
+
+import io.micronaut.context.annotation.Bean;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.exceptions.ConfigurationException;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Configures an {@link ExecutorService} that executes each task on a new virtual thread.
+ * Consumers opt in by referencing {@link #VIRTUAL_THREADS} as their executor. Requires Java 21
+ * or above. The executor does not exist on older runtimes.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Factory
+@Requires(condition = VirtualThreadCondition.class)
+public class RabbitVirtualThreadExecutorFactory {
+
+    /**
+     * The name of the virtual thread executor.
+     */
+    public static final String VIRTUAL_THREADS = "rabbitmq-virtual";
+
+    /**
+     * @return The virtual thread executor
+     */
+    @Singleton
+    @Bean(preDestroy = "shutdown")
+    @Named(VIRTUAL_THREADS)
+    ExecutorService executorService() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, VIRTUAL_THREADS + "-", 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new ConfigurationException("The [" + VIRTUAL_THREADS + "] executor requires virtual thread support which is only available in Java 21 or above", e);
+        }
+    }
+}
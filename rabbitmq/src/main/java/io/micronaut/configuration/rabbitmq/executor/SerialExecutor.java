@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * An {@link Executor} that executes tasks one at a time, in the order
+ * they were submitted, on the threads of another executor. Tasks are
+ * executed in batches to allow other work on the delegate executor
+ * to make progress.
+ *
+ * If the delegate rejects a task, {@link #execute(Runnable)} throws the
+ * rejection and the task is not executed. Tasks that were already waiting
+ * are passed to the rejection handler, so they are never left waiting for
+ * an executor that will not run them.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class SerialExecutor implements Executor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SerialExecutor.class);
+    private static final int BATCH_SIZE = 64;
+
+    private final Executor delegate;
+    private final BiConsumer<Runnable, RejectedExecutionException> rejectionHandler;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * Default constructor.
+     *
+     * @param delegate The executor to execute the tasks on
+     */
+    public SerialExecutor(Executor delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param delegate The executor to execute the tasks on
+     * @param rejectionHandler Receives the waiting tasks that will not be executed because the
+     *                         delegate rejected them. If null, the tasks are logged and discarded
+     */
+    public SerialExecutor(Executor delegate, @Nullable BiConsumer<Runnable, RejectedExecutionException> rejectionHandler) {
+        this.delegate = delegate;
+        this.rejectionHandler = rejectionHandler;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        try {
+            schedule();
+        } catch (RejectedExecutionException e) {
+            // if the task is gone it was executed or rejected by another thread
+            boolean removed = tasks.remove(task);
+            rejectAll(e);
+            if (removed) {
+                throw e;
+            }
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                delegate.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    if (LOG.isErrorEnabled()) {
+                        LOG.error("A serially executed task produced an error", e);
+                    }
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (!tasks.isEmpty()) {
+                try {
+                    schedule();
+                } catch (RejectedExecutionException e) {
+                    rejectAll(e);
+                }
+            }
+        }
+    }
+
+    private void rejectAll(RejectedExecutionException e) {
+        Runnable task = tasks.poll();
+        while (task != null) {
+            if (rejectionHandler != null) {
+                try {
+                    rejectionHandler.accept(task, e);
+                } catch (RuntimeException ex) {
+                    if (LOG.isErrorEnabled()) {
+                        LOG.error("An error occurred handling a rejected task", ex);
+                    }
+                }
+            } else if (LOG.isErrorEnabled()) {
+                LOG.error("A serially executed task was discarded because the executor rejected it", e);
+            }
+            task = tasks.poll();
+        }
+    }
+}
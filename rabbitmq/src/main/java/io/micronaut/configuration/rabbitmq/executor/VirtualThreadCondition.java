@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.executor;
+
+import io.micronaut.context.condition.Condition;
+import io.micronaut.context.condition.ConditionContext;
+
+/**
+ * A {@link Condition} that matches when the runtime supports virtual threads.
+ * The methods are probed rather than the Java version compared, so runtimes
+ * that report their version unusually are handled as well.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class VirtualThreadCondition implements Condition {
+
+    @Override
+    public boolean matches(ConditionContext context) {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            context.fail("Virtual threads require Java 21 or above");
+            return false;
+        }
+    }
+}
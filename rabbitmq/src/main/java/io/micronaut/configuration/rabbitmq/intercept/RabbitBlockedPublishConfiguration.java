@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures how {@link io.micronaut.configuration.rabbitmq.annotation.RabbitClient}
+ * methods publish while the broker has blocked their connection because of a
+ * memory or disk alarm.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@ConfigurationProperties("rabbitmq.publisher.blocked")
+public class RabbitBlockedPublishConfiguration {
+
+    /**
+     * The default buffer size value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_BUFFER_SIZE = 1000;
+
+    /**
+     * The policies for publishing while the connection is blocked.
+     */
+    public enum Policy {
+
+        /**
+         * The publish fails straight away.
+         */
+        FAIL,
+
+        /**
+         * The publishing thread waits for the connection to be unblocked until the timeout.
+         */
+        WAIT,
+
+        /**
+         * The message is kept in a bounded buffer and published once the connection is unblocked.
+         */
+        BUFFER
+    }
+
+    private Policy policy = Policy.WAIT;
+    private Duration timeout = Duration.ofSeconds(10);
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * @return The policy for publishing while the connection is blocked
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Default value (WAIT).
+     *
+     * @param policy The policy for publishing while the connection is blocked
+     */
+    public void setPolicy(Policy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @return The maximum time to wait for the connection to be unblocked
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Default value (10s).
+     *
+     * @param timeout The maximum time to wait for the connection to be unblocked
+     */
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return The maximum number of messages buffered per connection
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Default value ({@value #DEFAULT_BUFFER_SIZE}).
+     *
+     * @param bufferSize The maximum number of messages buffered per connection
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import io.micronaut.configuration.rabbitmq.annotation.ListenerCircuitBreaker;
+import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.core.convert.ConversionService;
+import io.micronaut.messaging.exceptions.MessageListenerException;
+
+import java.time.Duration;
+
+/**
+ * Tracks the outcome of the most recent messages of a listener to decide
+ * whether it should stop consuming. See {@link ListenerCircuitBreaker}.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitCircuitBreaker {
+
+    /**
+     * The states of the circuit.
+     */
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final boolean[] failed;
+    private final int minimumCalls;
+    private final double failureRate;
+    private final Duration openDuration;
+    private final int probes;
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private int expected;
+
+    /**
+     * Default constructor.
+     *
+     * @param breakerAnn The circuit breaker annotation
+     * @param conversionService The conversion service to convert the open duration
+     * @param clientTag The consumer tag used in error messages
+     */
+    RabbitCircuitBreaker(AnnotationValue<ListenerCircuitBreaker> breakerAnn, ConversionService<?> conversionService, String clientTag) {
+        int window = breakerAnn.getRequiredValue("window", int.class);
+        this.minimumCalls = breakerAnn.getRequiredValue("minimumCalls", int.class);
+        this.failureRate = breakerAnn.getRequiredValue("failureRate", double.class);
+        this.probes = breakerAnn.getRequiredValue("probes", int.class);
+        if (window < 1 || minimumCalls < 1 || minimumCalls > window) {
+            throw new MessageListenerException(String.format("The circuit breaker of the consumer [%s] must have a window of at least 1 and a minimum number of calls between 1 and the window", clientTag));
+        }
+        if (failureRate <= 0 || failureRate > 1) {
+            throw new MessageListenerException(String.format("The failure rate of the circuit breaker of the consumer [%s] must be greater than 0 and at most 1", clientTag));
+        }
+        if (probes < 1) {
+            throw new MessageListenerException(String.format("The circuit breaker of the consumer [%s] must have at least one probe", clientTag));
+        }
+        String value = breakerAnn.getRequiredValue("openDuration", String.class);
+        this.openDuration = conversionService.convert(value, Duration.class)
+                .orElseThrow(() -> new MessageListenerException(String.format("Could not convert the openDuration [%s] of the consumer [%s] to a duration", value, clientTag)));
+        this.failed = new boolean[window];
+    }
+
+    /**
+     * @return The time the circuit stays open before messages are probed
+     */
+    Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * @return The maximum number of messages to probe while half open
+     */
+    int getProbes() {
+        return probes;
+    }
+
+    /**
+     * @return The current state of the circuit
+     */
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Records the outcome of a message. Outcomes are ignored while the circuit is
+     * open because they belong to messages delivered before it opened.
+     *
+     * @param success Whether the message was processed successfully
+     * @return The new state if the circuit changed state, otherwise null
+     */
+    synchronized State record(boolean success) {
+        switch (state) {
+            case CLOSED:
+                if (calls == failed.length) {
+                    if (failed[next]) {
+                        failures--;
+                    }
+                } else {
+                    calls++;
+                }
+                failed[next] = !success;
+                if (!success) {
+                    failures++;
+                }
+                next = (next + 1) % failed.length;
+                if (calls >= minimumCalls && failures >= failureRate * calls) {
+                    return transition(State.OPEN);
+                }
+                return null;
+            case HALF_OPEN:
+                if (!success) {
+                    return transition(State.OPEN);
+                }
+                if (--expected <= 0) {
+                    return transition(State.CLOSED);
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Records a message that was settled without being processed. It only counts
+     * towards the probes while the circuit is half open.
+     *
+     * @return The new state if the circuit changed state, otherwise null
+     */
+    synchronized State skipped() {
+        if (state == State.HALF_OPEN && --expected <= 0) {
+            return transition(State.CLOSED);
+        }
+        return null;
+    }
+
+    /**
+     * Moves the circuit to half open to evaluate the given number of probes.
+     *
+     * @param expected The number of probes that must succeed for the circuit to close
+     */
+    synchronized void halfOpen(int expected) {
+        this.expected = expected;
+        state = State.HALF_OPEN;
+    }
+
+    /**
+     * Closes the circuit without evaluating any probes.
+     */
+    synchronized void close() {
+        transition(State.CLOSED);
+    }
+
+    private State transition(State state) {
+        this.state = state;
+        if (state == State.CLOSED) {
+            calls = 0;
+            failures = 0;
+            next = 0;
+        }
+        return state;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import com.rabbitmq.client.AlreadyClosedException;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerException;
+import io.micronaut.scheduling.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Drives the {@link RabbitCircuitBreaker} of a listener. The outcome of every
+ * message is recorded, the listener is notified when the circuit opens or
+ * closes, and the queue is probed once the circuit has been open for its
+ * open duration.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitCircuitController {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitCircuitController.class);
+
+    private final RabbitCircuitBreaker breaker;
+    private final String queue;
+    private final String clientTag;
+    private final TaskScheduler taskScheduler;
+    private final Executor probeExecutor;
+    private final Object bean;
+    private final Consumer<RabbitListenerException> exceptionHandler;
+    private final Consumer<RabbitCircuitBreaker.State> stateChanged;
+
+    /**
+     * Default constructor.
+     *
+     * @param breaker The circuit breaker of the listener
+     * @param queue The queue to retrieve probes from
+     * @param clientTag The client tag of the consumer
+     * @param taskScheduler The scheduler to delay the probes with
+     * @param probeExecutor The executor to probe on
+     * @param bean The listener bean
+     * @param exceptionHandler Handles exceptions
+     * @param stateChanged Invoked when the circuit opens or closes
+     */
+    RabbitCircuitController(RabbitCircuitBreaker breaker,
+                            String queue,
+                            String clientTag,
+                            TaskScheduler taskScheduler,
+                            Executor probeExecutor,
+                            Object bean,
+                            Consumer<RabbitListenerException> exceptionHandler,
+                            Consumer<RabbitCircuitBreaker.State> stateChanged) {
+        this.breaker = breaker;
+        this.queue = queue;
+        this.clientTag = clientTag;
+        this.taskScheduler = taskScheduler;
+        this.probeExecutor = probeExecutor;
+        this.bean = bean;
+        this.exceptionHandler = exceptionHandler;
+        this.stateChanged = stateChanged;
+    }
+
+    /**
+     * @return The time the circuit stays open before messages are probed
+     */
+    Duration getOpenDuration() {
+        return breaker.getOpenDuration();
+    }
+
+    /**
+     * @param success Whether a message was processed successfully
+     */
+    void record(boolean success) {
+        changed(breaker.record(success));
+    }
+
+    /**
+     * Counts a message that was settled without being processed, so a probe
+     * that turns out to be a duplicate or quarantined does not keep the
+     * circuit half open.
+     */
+    void skipped() {
+        changed(breaker.skipped());
+    }
+
+    /**
+     * Executes the probe on the probe executor once the open duration has elapsed.
+     *
+     * @param probe Finds a consumer and {@link #probe(Channel, DefaultConsumer) probes} with it
+     */
+    void scheduleProbe(Runnable probe) {
+        try {
+            taskScheduler.schedule(breaker.getOpenDuration(), () -> probeExecutor.execute(probe));
+        } catch (RejectedExecutionException e) {
+            exceptionHandler.accept(new RabbitListenerException("The circuit breaker could not be scheduled to close. The consumer will no longer receive messages", e, bean, null));
+        }
+    }
+
+    /**
+     * Retrieves up to the configured number of probes from the queue and delivers
+     * them to the consumer while the circuit is half open. The outcome of the probes
+     * decides whether the circuit closes or opens again. If the queue is empty there
+     * is nothing to fail, so the circuit closes.
+     *
+     * @param channel The channel to retrieve the probes with
+     * @param consumer The consumer to deliver the probes to
+     */
+    void probe(Channel channel, DefaultConsumer consumer) {
+        int probes = breaker.getProbes();
+        List<GetResponse> responses = new ArrayList<>(probes);
+        try {
+            while (responses.size() < probes) {
+                GetResponse response = channel.basicGet(queue, false);
+                if (response == null) {
+                    break;
+                }
+                responses.add(response);
+            }
+        } catch (IOException | AlreadyClosedException e) {
+            exceptionHandler.accept(new RabbitListenerException("An error occurred retrieving messages to probe the circuit breaker", e, bean, null));
+            if (responses.isEmpty()) {
+                stateChanged.accept(RabbitCircuitBreaker.State.OPEN);
+                return;
+            }
+        }
+        if (responses.isEmpty()) {
+            breaker.close();
+            stateChanged.accept(RabbitCircuitBreaker.State.CLOSED);
+            return;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("The circuit breaker of the consumer [{}] is half open. Probing with {} message(s)", clientTag, responses.size());
+        }
+        breaker.halfOpen(responses.size());
+        for (GetResponse response : responses) {
+            try {
+                consumer.handleDelivery(null, response.getEnvelope(), response.getProps(), response.getBody());
+            } catch (IOException | RuntimeException e) {
+                exceptionHandler.accept(new RabbitListenerException("An error occurred processing a probe of the circuit breaker", e, bean, null));
+            }
+        }
+    }
+
+    private void changed(RabbitCircuitBreaker.State state) {
+        if (state != null) {
+            stateChanged.accept(state);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.AlreadyClosedException;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.ReturnListener;
+import com.rabbitmq.client.ShutdownListener;
+import com.rabbitmq.client.ShutdownSignalException;
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.messaging.exceptions.MessagingClientException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the messages of a listener, such as its replies, on a channel reserved for
+ * the listener with publisher confirms enabled. Messages are not waited on individually.
+ * Each publish returns a future that completes when the broker confirms the message, so
+ * any number of messages can be awaiting confirmation at the same time.
+ *
+ * Mandatory messages that the broker returns because they could not be routed to a queue
+ * fail their future. The broker returns messages in the order they were published and before
+ * confirming them, so a returned message is matched to the oldest unconfirmed mandatory
+ * message with the same exchange, routing key and body. The published message is not changed. The channel is closed rather than returned to the pool once it is no
+ * longer used, because other users of the pool do not expect a channel in confirm mode.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitConfirmPublisher implements AutoCloseable {
+
+    private final ChannelPool channelPool;
+    private ConfirmChannel confirmChannel;
+
+    /**
+     * Default constructor.
+     *
+     * @param channelPool The pool to retrieve the channel from
+     */
+    RabbitConfirmPublisher(ChannelPool channelPool) {
+        this.channelPool = channelPool;
+    }
+
+    /**
+     * Publishes a message.
+     *
+     * @param exchange The exchange
+     * @param routingKey The routing key
+     * @param properties The properties
+     * @param body The body
+     * @return A future that completes when the broker confirms the message
+     */
+    CompletableFuture<Void> publish(String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body) {
+        return publish(exchange, routingKey, false, properties, body);
+    }
+
+    /**
+     * Publishes a message.
+     *
+     * @param exchange The exchange
+     * @param routingKey The routing key
+     * @param mandatory Whether the message must be routed to a queue. If it is not, the future fails
+     * @param properties The properties
+     * @param body The body
+     * @return A future that completes when the broker confirms the message
+     */
+    synchronized CompletableFuture<Void> publish(String exchange, String routingKey, boolean mandatory, AMQP.BasicProperties properties, byte[] body) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            if (confirmChannel == null || !confirmChannel.channel.isOpen()) {
+                if (confirmChannel != null) {
+                    confirmChannel.release();
+                }
+                // cleared first so a failure to open the new channel does not release the old one again
+                confirmChannel = null;
+                confirmChannel = new ConfirmChannel(channelPool.getChannel());
+            }
+            confirmChannel.publish(exchange, routingKey, mandatory, properties, body, future);
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (confirmChannel != null) {
+            confirmChannel.release();
+            confirmChannel = null;
+        }
+    }
+
+    /**
+     * A channel in confirm mode and the messages awaiting confirmation on it.
+     */
+    private final class ConfirmChannel implements ConfirmListener, ReturnListener, ShutdownListener {
+
+        private final Channel channel;
+        private final NavigableMap<Long, CompletableFuture<Void>> outstanding = new ConcurrentSkipListMap<>();
+        private final NavigableMap<Long, MandatoryMessage> mandatoryMessages = new ConcurrentSkipListMap<>();
+        private final Set<Long> returned = ConcurrentHashMap.newKeySet();
+
+        ConfirmChannel(Channel channel) throws IOException {
+            this.channel = channel;
+            try {
+                channel.confirmSelect();
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+            channel.addConfirmListener(this);
+            channel.addReturnListener(this);
+            channel.addShutdownListener(this);
+        }
+
+        void publish(String exchange, String routingKey, boolean mandatory, AMQP.BasicProperties properties, byte[] body, CompletableFuture<Void> future) throws IOException {
+            long sequence = channel.getNextPublishSeqNo();
+            outstanding.put(sequence, future);
+            if (mandatory) {
+                mandatoryMessages.put(sequence, new MandatoryMessage(exchange, routingKey, body));
+            }
+            try {
+                channel.basicPublish(exchange, routingKey, mandatory, properties, body);
+            } catch (IOException | RuntimeException e) {
+                outstanding.remove(sequence);
+                mandatoryMessages.remove(sequence);
+                throw e;
+            }
+        }
+
+        void release() {
+            channel.removeConfirmListener(this);
+            channel.removeReturnListener(this);
+            channel.removeShutdownListener(this);
+            fail(new MessagingClientException("The channel was closed before the message was confirmed"));
+            close();
+        }
+
+        /**
+         * Closes the channel, which must not be reused in confirm mode, and hands it
+         * back to the pool so it is no longer counted as in use.
+         */
+        private void close() {
+            try {
+                channel.close();
+            } catch (AlreadyClosedException e) {
+                //no-op
+            } catch (IOException | TimeoutException e) {
+                // a channel left open would be reused in confirm mode
+                try {
+                    channel.abort();
+                } catch (IOException ex) {
+                    //no-op
+                }
+            } finally {
+                channelPool.returnChannel(channel);
+            }
+        }
+
+        @Override
+        public void handleReturn(int replyCode, String replyText, String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body) {
+            // the broker confirms a returned message after returning it
+            for (Map.Entry<Long, MandatoryMessage> entry : mandatoryMessages.entrySet()) {
+                if (entry.getValue().matches(exchange, routingKey, body) && mandatoryMessages.remove(entry.getKey()) != null) {
+                    returned.add(entry.getKey());
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void handleAck(long deliveryTag, boolean multiple) {
+            if (multiple) {
+                NavigableMap<Long, CompletableFuture<Void>> confirmed = outstanding.headMap(deliveryTag, true);
+                for (Map.Entry<Long, CompletableFuture<Void>> entry : confirmed.entrySet()) {
+                    confirmed(entry.getKey(), entry.getValue());
+                }
+                confirmed.clear();
+            } else {
+                CompletableFuture<Void> future = outstanding.remove(deliveryTag);
+                if (future != null) {
+                    confirmed(deliveryTag, future);
+                }
+            }
+        }
+
+        private void confirmed(long sequence, CompletableFuture<Void> future) {
+            mandatoryMessages.remove(sequence);
+            if (returned.remove(sequence)) {
+                future.completeExceptionally(new MessagingClientException("The message could not be routed to a queue"));
+            } else {
+                future.complete(null);
+            }
+        }
+
+        @Override
+        public void handleNack(long deliveryTag, boolean multiple) {
+            MessagingClientException exception = new MessagingClientException("The message could not be delivered to the broker");
+            if (multiple) {
+                NavigableMap<Long, CompletableFuture<Void>> rejected = outstanding.headMap(deliveryTag, true);
+                for (CompletableFuture<Void> future : rejected.values()) {
+                    future.completeExceptionally(exception);
+                }
+                rejected.clear();
+                mandatoryMessages.headMap(deliveryTag, true).clear();
+                returned.removeIf(sequence -> sequence <= deliveryTag);
+            } else {
+                mandatoryMessages.remove(deliveryTag);
+                returned.remove(deliveryTag);
+                CompletableFuture<Void> future = outstanding.remove(deliveryTag);
+                if (future != null) {
+                    future.completeExceptionally(exception);
+                }
+            }
+        }
+
+        @Override
+        public void shutdownCompleted(ShutdownSignalException cause) {
+            fail(new MessagingClientException("The channel was closed before the message was confirmed", cause));
+        }
+
+        private void fail(MessagingClientException exception) {
+            for (Map.Entry<Long, CompletableFuture<Void>> entry : outstanding.entrySet()) {
+                entry.getValue().completeExceptionally(exception);
+            }
+            outstanding.clear();
+            mandatoryMessages.clear();
+            returned.clear();
+        }
+    }
+
+    /**
+     * A mandatory message awaiting confirmation, kept to recognize it if it is returned.
+     */
+    private static final class MandatoryMessage {
+
+        private final String exchange;
+        private final String routingKey;
+        private final byte[] body;
+
+        private MandatoryMessage(String exchange, String routingKey, byte[] body) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.body = body;
+        }
+
+        private boolean matches(String exchange, String routingKey, byte[] body) {
+            return this.exchange.equals(exchange) && this.routingKey.equals(routingKey) && Arrays.equals(this.body, body);
+        }
+    }
+}
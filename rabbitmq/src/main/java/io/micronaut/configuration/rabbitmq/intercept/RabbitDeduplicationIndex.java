@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Remembers the keys of the messages processed by a consumer with {@link io.micronaut.configuration.rabbitmq.annotation.Deduplicate}.
+ * The keys are stored as 64 bit hashes with their expiry in an open addressing table
+ * held in direct memory, so the index does not add to the heap regardless of its
+ * capacity. The table has twice as many slots as the capacity. If none of the slots
+ * a key can occupy are free, the slot closest to expiring is reused.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitDeduplicationIndex {
+
+    private static final int SLOT_SIZE = 16;
+    private static final int MAX_PROBES = 16;
+    private static final int MAX_CAPACITY = 1 << 25;
+
+    private final Function<RabbitConsumerState, Object> key;
+    private final long ttlNanos;
+    private final ByteBuffer table;
+    private final int mask;
+
+    /**
+     * Default constructor.
+     *
+     * @param key Extracts the key of a message
+     * @param capacity The number of keys to remember
+     * @param ttl The duration to remember a key for
+     */
+    RabbitDeduplicationIndex(Function<RabbitConsumerState, Object> key, int capacity, Duration ttl) {
+        this.key = key;
+        this.ttlNanos = ttl.toNanos();
+        int slots = Integer.highestOneBit(Math.min(MAX_CAPACITY, Math.max(1, capacity)) * 2 - 1) << 1;
+        this.table = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        this.mask = slots - 1;
+    }
+
+    /**
+     * @param state The message
+     * @return True if a message with the same key was processed within the time to live
+     */
+    boolean isDuplicate(RabbitConsumerState state) {
+        long hash = hash(state);
+        return hash != 0 && contains(hash, System.nanoTime());
+    }
+
+    /**
+     * Records that the message was processed.
+     *
+     * @param state The message
+     */
+    void processed(RabbitConsumerState state) {
+        long hash = hash(state);
+        if (hash != 0) {
+            add(hash, System.nanoTime());
+        }
+    }
+
+    private synchronized boolean contains(long hash, long now) {
+        int index = (int) hash & mask;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int offset = ((index + i) & mask) * SLOT_SIZE;
+            long current = table.getLong(offset);
+            if (current == 0) {
+                return false;
+            }
+            if (current == hash) {
+                return table.getLong(offset + 8) - now > 0;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void add(long hash, long now) {
+        int index = (int) hash & mask;
+        int victim = -1;
+        long victimExpiry = 0;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int offset = ((index + i) & mask) * SLOT_SIZE;
+            long current = table.getLong(offset);
+            if (current == hash) {
+                victim = offset;
+                break;
+            }
+            if (current == 0) {
+                // an expired slot earlier in the sequence is reused before an empty one
+                if (victim == -1 || victimExpiry - now > 0) {
+                    victim = offset;
+                }
+                break;
+            }
+            long expiry = table.getLong(offset + 8);
+            if (victim == -1 || expiry - victimExpiry < 0) {
+                victim = offset;
+                victimExpiry = expiry;
+            }
+        }
+        table.putLong(victim, hash);
+        table.putLong(victim + 8, now + ttlNanos);
+    }
+
+    private long hash(RabbitConsumerState state) {
+        Object value = key.apply(state);
+        if (value == null) {
+            return 0;
+        }
+        long hash = RabbitRedeliveryTracker.hash(value.toString());
+        // zero marks an empty slot
+        return hash != 0 ? hash : 1;
+    }
+}
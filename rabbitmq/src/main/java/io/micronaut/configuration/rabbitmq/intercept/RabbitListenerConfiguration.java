@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures the listeners of every connection.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@ConfigurationProperties("rabbitmq.listener")
+public class RabbitListenerConfiguration {
+
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    /**
+     * @return The maximum time to wait for delivered messages to be processed on shutdown
+     */
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    /**
+     * Default value (30s). Messages that were not processed within the timeout are
+     * re-queued by the broker when the channels are closed.
+     *
+     * @param shutdownTimeout The maximum time to wait for delivered messages to be processed on shutdown
+     */
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+}
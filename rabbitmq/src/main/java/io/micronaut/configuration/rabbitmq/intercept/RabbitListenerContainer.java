@@ -0,0 +1,1329 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.AlreadyClosedException;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.Recoverable;
+import com.rabbitmq.client.ShutdownSignalException;
+import io.micronaut.configuration.rabbitmq.annotation.AdaptivePrefetch;
+import io.micronaut.configuration.rabbitmq.annotation.Deduplicate;
+import io.micronaut.configuration.rabbitmq.annotation.KeyOrdered;
+import io.micronaut.configuration.rabbitmq.annotation.ListenerCircuitBreaker;
+import io.micronaut.configuration.rabbitmq.annotation.Quarantine;
+import io.micronaut.configuration.rabbitmq.annotation.Queue;
+import io.micronaut.configuration.rabbitmq.annotation.RabbitListener;
+import io.micronaut.configuration.rabbitmq.annotation.RabbitProperty;
+import io.micronaut.configuration.rabbitmq.annotation.RetryPolicy;
+import io.micronaut.configuration.rabbitmq.bind.RabbitAcknowledgementTracker;
+import io.micronaut.configuration.rabbitmq.bind.RabbitBinderRegistry;
+import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
+import io.micronaut.configuration.rabbitmq.bind.RabbitMessageCloseable;
+import io.micronaut.configuration.rabbitmq.bind.RabbitMethodBinder;
+import io.micronaut.configuration.rabbitmq.bind.RabbitPropertyBinder;
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.configuration.rabbitmq.connect.NamedRabbitConnectionFactoryConfig;
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerException;
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerExceptionHandler;
+import io.micronaut.configuration.rabbitmq.serdes.RabbitMessageSerDes;
+import io.micronaut.configuration.rabbitmq.serdes.RabbitMessageSerDesRegistry;
+import io.micronaut.configuration.rabbitmq.executor.SerialExecutor;
+import io.micronaut.context.BeanContext;
+import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.core.async.publisher.Publishers;
+import io.micronaut.core.convert.ConversionService;
+import io.micronaut.core.type.Argument;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.inject.ExecutableMethod;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.messaging.Acknowledgement;
+import io.micronaut.messaging.annotation.SendTo;
+import io.micronaut.messaging.exceptions.MessageAcknowledgementException;
+import io.micronaut.messaging.exceptions.MessageListenerException;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Consumes messages from a {@link Queue} on behalf of a {@link RabbitListener} method.
+ * Each container subscribes one consumer per unit of concurrency, each with its own
+ * channel. Containers can be paused, resumed and rescaled at runtime through the
+ * {@link RabbitListenerRegistry}.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class RabbitListenerContainer implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitListenerContainer.class);
+    private static final int DEFAULT_ACK_THRESHOLD = 128;
+
+    private final String id;
+    private final String clientTag;
+    private final String queue;
+    private final Object bean;
+    private final ExecutableMethod<Object, ?> method;
+    private final ChannelPool channelPool;
+    private final RabbitListenerExceptionHandler exceptionHandler;
+    private final RabbitMethodBinder binder;
+    private final Map<String, Object> arguments = new HashMap<>();
+    private final boolean reQueue;
+    private final boolean exclusive;
+    private final boolean hasAckArg;
+    private final boolean asyncResult;
+    private final boolean booleanResult;
+    private final int prefetch;
+    private final int maxPrefetch;
+    private final ExecutorService executorService;
+    private final Executor[] lanes;
+    private final Function<RabbitConsumerState, Object> laneKey;
+    private final boolean inline;
+    private final AnnotationValue<AdaptivePrefetch> adaptiveAnn;
+    private final Duration adjustBuffer;
+    private final Duration adjustInterval;
+    private final TaskScheduler taskScheduler;
+    private final RabbitRetryScheduler retry;
+    private final RabbitMessageQuarantine quarantine;
+    private final RabbitDeduplicationIndex deduplication;
+    private final RabbitRetryPolicy recovery;
+    private final RabbitCircuitController breaker;
+    private final RabbitListenerMetrics metrics;
+    private final RabbitConfirmPublisher replies;
+    private final String defaultReplyTo;
+    private final RabbitMessageSerDesRegistry serDesRegistry;
+    private final RabbitStreamListener streamListener;
+    private final List<ListenerConsumer> consumers = new CopyOnWriteArrayList<>();
+    // consumers that were removed but still have messages to process
+    private final List<ListenerConsumer> retiring = new CopyOnWriteArrayList<>();
+    private final Object drainLock = new Object();
+    private int concurrency;
+    private boolean paused;
+    private boolean tripped;
+    private volatile boolean stopped;
+    private volatile boolean closed;
+
+    /**
+     * Default constructor.
+     *
+     * @param id                The identifier of the listener
+     * @param bean              The listener bean
+     * @param method            The listener method
+     * @param beanContext       The bean context to retrieve executors from
+     * @param channelPool       The pool to retrieve channels from
+     * @param binderRegistry    The registry to bind arguments to the method
+     * @param exceptionHandler  The exception handler to use if the consumer isn't a handler
+     * @param conversionService The service to convert consume argument values
+     * @param propertyBinder    The binder to read properties used as ordering keys
+     */
+    public RabbitListenerContainer(String id,
+                                   Object bean,
+                                   ExecutableMethod<?, ?> method,
+                                   BeanContext beanContext,
+                                   ChannelPool channelPool,
+                                   RabbitBinderRegistry binderRegistry,
+                                   RabbitListenerExceptionHandler exceptionHandler,
+                                   ConversionService<?> conversionService,
+                                   RabbitPropertyBinder propertyBinder) {
+        this.id = id;
+        this.bean = bean;
+        this.method = (ExecutableMethod<Object, ?>) method;
+        this.channelPool = channelPool;
+        this.exceptionHandler = exceptionHandler;
+
+        AnnotationValue<Queue> queueAnn = method.getAnnotation(Queue.class);
+        if (queueAnn == null) {
+            throw new MessageListenerException("The method " + method + " is not annotated with @Queue");
+        }
+        this.queue = queueAnn.getRequiredValue(String.class);
+        this.clientTag = method.getDeclaringType().getSimpleName() + '#' + method.toString();
+        this.reQueue = queueAnn.getRequiredValue("reQueue", boolean.class);
+        this.exclusive = queueAnn.getRequiredValue("exclusive", boolean.class);
+        this.prefetch = queueAnn.getRequiredValue("prefetch", int.class);
+        this.concurrency = queueAnn.getRequiredValue("concurrency", int.class);
+
+        this.hasAckArg = Arrays.stream(method.getArguments())
+                .anyMatch(arg -> Acknowledgement.class.isAssignableFrom(arg.getType()));
+
+        String executorName = queueAnn.get("executor", String.class)
+                .filter(StringUtils::isNotEmpty)
+                .orElseGet(() -> method.getValue(RabbitListener.class, "executor", String.class).orElse(null));
+
+        // the executor the connection of the listener dispatches messages on
+        String consumerExecutorName = method.getValue(RabbitListener.class, "connection", String.class)
+                .filter(StringUtils::isNotEmpty)
+                .flatMap(connection -> beanContext.findBean(NamedRabbitConnectionFactoryConfig.class, Qualifiers.byName(connection)))
+                .map(NamedRabbitConnectionFactoryConfig::getConsumerExecutor)
+                .filter(StringUtils::isNotEmpty)
+                .orElse(TaskExecutors.MESSAGE_CONSUMER);
+
+        if (StringUtils.isNotEmpty(executorName)) {
+            this.executorService = beanContext.findBean(ExecutorService.class, Qualifiers.byName(executorName))
+                    .orElseThrow(() -> new MessageListenerException(String.format("Could not find an executor service named [%s] for the consumer [%s]", executorName, clientTag)));
+        } else {
+            this.executorService = null;
+        }
+
+        AnnotationValue<KeyOrdered> orderedAnn = method.getAnnotation(KeyOrdered.class);
+        if (orderedAnn != null) {
+            int laneCount = orderedAnn.getRequiredValue("lanes", int.class);
+            if (laneCount < 1) {
+                throw new MessageListenerException(String.format("The consumer [%s] must have at least one lane", clientTag));
+            }
+            Executor laneExecutor = executorService != null ? executorService : beanContext.getBean(ExecutorService.class, Qualifiers.byName(consumerExecutorName));
+            this.lanes = new Executor[laneCount];
+            for (int i = 0; i < laneCount; i++) {
+                lanes[i] = new SerialExecutor(laneExecutor, (task, e) -> ((ListenerConsumer.Dispatch) task).rejected(e));
+            }
+            this.laneKey = getMessageKey(orderedAnn, "ordering", state -> state.getEnvelope().getRoutingKey(), propertyBinder);
+        } else {
+            this.lanes = null;
+            this.laneKey = null;
+        }
+        this.inline = executorService == null && lanes == null;
+        validateConcurrency(concurrency);
+
+        this.adaptiveAnn = method.getAnnotation(AdaptivePrefetch.class);
+        if (adaptiveAnn != null) {
+            this.maxPrefetch = adaptiveAnn.getRequiredValue("max", int.class);
+            this.adjustBuffer = getDuration(adaptiveAnn, "buffer", conversionService);
+            this.adjustInterval = getDuration(adaptiveAnn, "interval", conversionService);
+        } else {
+            this.maxPrefetch = prefetch;
+            this.adjustBuffer = null;
+            this.adjustInterval = null;
+        }
+
+        AnnotationValue<RetryPolicy> retryAnn = hasAckArg ? null : method.getAnnotation(RetryPolicy.class);
+        AnnotationValue<Quarantine> quarantineAnn = method.getAnnotation(Quarantine.class);
+        AnnotationValue<ListenerCircuitBreaker> breakerAnn = method.getAnnotation(ListenerCircuitBreaker.class);
+        RabbitListenerRecoveryConfiguration recoveryConfiguration = beanContext.getBean(RabbitListenerRecoveryConfiguration.class);
+
+        if (adaptiveAnn != null || retryAnn != null || recoveryConfiguration.isEnabled() || breakerAnn != null || quarantineAnn != null) {
+            this.taskScheduler = beanContext.getBean(TaskScheduler.class, Qualifiers.byName(TaskExecutors.SCHEDULED));
+        } else {
+            this.taskScheduler = null;
+        }
+
+        if (retryAnn != null) {
+            if (lanes != null) {
+                throw new MessageListenerException(String.format("The consumer [%s] cannot combine @RetryPolicy with @KeyOrdered. A retried message would be processed after later messages with the same key", clientTag));
+            }
+            this.retry = new RabbitRetryScheduler(new RabbitRetryPolicy(retryAnn, conversionService, clientTag),
+                    taskScheduler,
+                    executorService != null ? executorService : beanContext.getBean(ExecutorService.class, Qualifiers.byName(consumerExecutorName)),
+                    clientTag,
+                    bean,
+                    this::handleException);
+        } else {
+            this.retry = null;
+        }
+
+        this.quarantine = quarantineAnn != null ? new RabbitMessageQuarantine(quarantineAnn, queue, channelPool, conversionService, clientTag, bean, this::handleException) : null;
+
+        AnnotationValue<Deduplicate> deduplicateAnn = method.getAnnotation(Deduplicate.class);
+        if (deduplicateAnn != null) {
+            String ttl = deduplicateAnn.getRequiredValue("ttl", String.class);
+            this.deduplication = new RabbitDeduplicationIndex(
+                    getMessageKey(deduplicateAnn, "deduplication", state -> state.getProperties().getMessageId(), propertyBinder),
+                    deduplicateAnn.getRequiredValue("capacity", int.class),
+                    conversionService.convert(ttl, Duration.class)
+                            .orElseThrow(() -> new MessageListenerException(String.format("Could not convert the ttl [%s] of the consumer [%s] to a duration", ttl, clientTag))));
+        } else {
+            this.deduplication = null;
+        }
+
+        if (recoveryConfiguration.isEnabled()) {
+            this.recovery = new RabbitRetryPolicy(Integer.MAX_VALUE,
+                    recoveryConfiguration.getInitialDelay(),
+                    recoveryConfiguration.getMultiplier(),
+                    recoveryConfiguration.getMaxDelay(),
+                    recoveryConfiguration.getJitter());
+        } else {
+            this.recovery = null;
+        }
+
+        if (breakerAnn != null) {
+            this.breaker = new RabbitCircuitController(new RabbitCircuitBreaker(breakerAnn, conversionService, clientTag),
+                    queue,
+                    clientTag,
+                    taskScheduler,
+                    executorService != null ? executorService : beanContext.getBean(ExecutorService.class, Qualifiers.byName(consumerExecutorName)),
+                    bean,
+                    this::handleException,
+                    this::circuitChanged);
+        } else {
+            this.breaker = null;
+        }
+
+        if (!inline && maxPrefetch == 0 && LOG.isWarnEnabled()) {
+            LOG.warn("The consumer [{}] is executed on the [{}] executor without a prefetch. The number of messages waiting to be processed is unbounded", clientTag, executorName != null ? executorName : consumerExecutorName);
+        }
+
+        List<AnnotationValue<RabbitProperty>> propertyAnnotations = method.getAnnotationValuesByType(RabbitProperty.class);
+        Collections.reverse(propertyAnnotations); //set the values in the class first so methods can override
+        propertyAnnotations.forEach((prop) -> {
+            String name = prop.getRequiredValue("name", String.class);
+            String value = prop.getValue(String.class).orElse(null);
+            Class type = prop.get("type", Class.class).orElse(null);
+
+            if (StringUtils.isNotEmpty(name) && StringUtils.isNotEmpty(value)) {
+                if (type != null && type != Void.class) {
+                    Optional<Object> converted = conversionService.convert(value, type);
+                    if (converted.isPresent()) {
+                        arguments.put(name, converted.get());
+                    } else {
+                        throw new MessageListenerException(String.format("Could not convert the argument [%s] to the required type [%s]", name, type));
+                    }
+                } else {
+                    arguments.put(name, value);
+                }
+
+            }
+        });
+
+        if (RabbitStreamListener.isStream(method)) {
+            if (!inline || adaptiveAnn != null || retry != null || breaker != null) {
+                throw new MessageListenerException(String.format("The stream consumer [%s] cannot be used with an executor, key ordering, an adaptive prefetch, a retry policy or a circuit breaker", clientTag));
+            }
+            this.streamListener = new RabbitStreamListener(bean, this.method, binderRegistry, prefetch, reQueue, this::handleException);
+            this.binder = null;
+        } else {
+            this.streamListener = null;
+            this.binder = new RabbitMethodBinder(method, binderRegistry);
+        }
+
+        Class<?> returnType = method.getReturnType().getType();
+        this.asyncResult = CompletionStage.class.isAssignableFrom(returnType) || Publishers.isConvertibleToPublisher(returnType);
+        Class<?> resultType = returnType;
+        if (asyncResult) {
+            resultType = method.getReturnType().getFirstTypeVariable().<Class<?>>map(Argument::getType).orElse(Object.class);
+            if (maxPrefetch == 0 && !hasAckArg && streamListener == null && LOG.isWarnEnabled()) {
+                LOG.warn("The consumer [{}] returns an asynchronous type without a prefetch. The number of messages awaiting completion is unbounded", clientTag);
+            }
+        }
+        this.booleanResult = resultType == Boolean.class || resultType == boolean.class;
+
+        if (method.hasAnnotation(SendTo.class) && streamListener == null && !booleanResult && resultType != void.class && resultType != Void.class) {
+            if (hasAckArg) {
+                throw new MessageListenerException(String.format("The consumer [%s] sends replies and cannot accept an Acknowledgement argument because messages are acknowledged once the reply is confirmed", clientTag));
+            }
+            this.replies = new RabbitConfirmPublisher(channelPool);
+            this.defaultReplyTo = method.getValue(SendTo.class, String[].class)
+                    .filter(values -> values.length > 0)
+                    .map(values -> values[0])
+                    .orElse(null);
+            this.serDesRegistry = beanContext.getBean(RabbitMessageSerDesRegistry.class);
+        } else {
+            this.replies = null;
+            this.defaultReplyTo = null;
+            this.serDesRegistry = null;
+        }
+
+        this.metrics = beanContext.findBean(RabbitListenerMetricsFactory.class)
+                .map(factory -> factory.create(this))
+                .orElse(RabbitListenerMetrics.NOOP);
+    }
+
+    /**
+     * @return The identifier of the listener
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return The queue the listener consumes from
+     */
+    public String getQueue() {
+        return queue;
+    }
+
+    /**
+     * @return The tag of the consumers of the listener
+     */
+    public String getClientTag() {
+        return clientTag;
+    }
+
+    /**
+     * @return The number of consumers the listener should have
+     */
+    public synchronized int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @return Whether the listener is paused
+     */
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * @return Whether the circuit breaker of the listener is open or half open
+     */
+    public synchronized boolean isTripped() {
+        return tripped;
+    }
+
+    /**
+     * @return The number of messages delivered to the consumers that have not been acknowledged or rejected
+     */
+    public int getInFlight() {
+        int total = 0;
+        for (ListenerConsumer consumer : consumers) {
+            total += consumer.inFlight.get();
+        }
+        for (ListenerConsumer consumer : retiring) {
+            total += consumer.inFlight.get();
+        }
+        return total;
+    }
+
+    /**
+     * @return The number of consumers currently subscribed to the queue
+     */
+    public int getActiveConsumers() {
+        return (int) consumers.stream().filter(ListenerConsumer::isConsuming).count();
+    }
+
+    /**
+     * Subscribes the consumers of the listener unless it is paused. Consumers that
+     * fail to subscribe are retried in the background if recovery is enabled.
+     */
+    public synchronized void start() {
+        int missing = concurrency - consumers.size();
+        for (int i = 0; i < missing; i++) {
+            if (!addConsumer()) {
+                recover(System.nanoTime(), 0);
+            }
+        }
+    }
+
+    /**
+     * Cancels the consumers of the listener. Messages that were already delivered
+     * are still processed and acknowledged, but no further messages are received
+     * until the listener is resumed.
+     */
+    public synchronized void pause() {
+        paused = true;
+        for (ListenerConsumer consumer : consumers) {
+            consumer.cancel();
+        }
+    }
+
+    /**
+     * Resubscribes the consumers of the listener, replacing any consumers
+     * whose channel was closed while the listener was paused. If the circuit
+     * breaker of the listener is open, the consumers are subscribed once it closes.
+     */
+    public synchronized void resume() {
+        paused = false;
+        if (!tripped) {
+            subscribeAll();
+        }
+    }
+
+    private void subscribeAll() {
+        for (ListenerConsumer consumer : consumers) {
+            if (consumer.channel.isOpen()) {
+                consumer.consume();
+            } else {
+                consumer.retire();
+            }
+        }
+        start();
+    }
+
+    /**
+     * Changes the number of consumers of the listener. Each consumer has its own
+     * channel and prefetch. Removed consumers are cancelled and their channels
+     * are released once the messages they received have been processed.
+     *
+     * @param concurrency The number of consumers
+     */
+    public synchronized void setConcurrency(int concurrency) {
+        validateConcurrency(concurrency);
+        this.concurrency = concurrency;
+        start();
+        while (consumers.size() > concurrency) {
+            consumers.get(consumers.size() - 1).retire();
+        }
+    }
+
+    /**
+     * Cancels the consumers of the listener as the first step of shutting it down.
+     * Messages that were already delivered are still processed and acknowledged.
+     * Consumers are no longer subscribed again if their channel is lost.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        for (ListenerConsumer consumer : consumers) {
+            consumer.cancel();
+        }
+    }
+
+    /**
+     * Waits for the messages delivered to the consumers of the listener to be
+     * acknowledged or rejected.
+     *
+     * @param timeout The maximum time to wait
+     * @return True if every message was completed
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    public boolean awaitDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (drainLock) {
+            while (!isDrained()) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                drainLock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Closes the channels of the consumers. Completed messages that are waiting to be
+     * acknowledged are acknowledged first. Any message that has not been acknowledged
+     * is returned to the queue by the broker when the channel is closed. To shut down
+     * gracefully, {@link #stop()} the listener and wait for it to be
+     * {@link #awaitDrained(Duration) drained} before closing it.
+     */
+    @Override
+    public synchronized void close() {
+        stopped = true;
+        closed = true;
+        for (ListenerConsumer consumer : consumers) {
+            consumer.close();
+        }
+        for (ListenerConsumer consumer : retiring) {
+            consumer.close();
+        }
+        consumers.clear();
+        retiring.clear();
+        if (replies != null) {
+            replies.close();
+        }
+        if (quarantine != null) {
+            quarantine.close();
+        }
+    }
+
+    private boolean isDrained() {
+        return getInFlight() == 0;
+    }
+
+    private boolean addConsumer() {
+        Channel channel;
+        try {
+            channel = channelPool.getChannel();
+        } catch (IOException e) {
+            throw new MessageListenerException("Could not retrieve a channel", e);
+        }
+
+        ListenerConsumer consumer = new ListenerConsumer(channel);
+        consumers.add(consumer);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Registering a consumer to queue [{}] with client tag [{}]", queue, clientTag);
+        }
+
+        try {
+            consumer.start();
+            if (!paused && !tripped) {
+                consumer.subscribe();
+            }
+            return true;
+        } catch (Throwable e) {
+            consumer.release();
+            if (LOG.isErrorEnabled()) {
+                if (recovery != null) {
+                    LOG.error("Failed to subscribe the consumer [{}]. The subscription will be retried", clientTag);
+                } else {
+                    LOG.error("Failed to subscribe the consumer [{}]. The consumer will not receive messages", clientTag);
+                }
+            }
+            handleException(new RabbitListenerException("An error occurred subscribing to a queue", e, bean, null));
+            return false;
+        }
+    }
+
+    /**
+     * Schedules an attempt to replace a consumer that was lost.
+     *
+     * @param lost The time the consumer was lost
+     * @param attempt The number of attempts that have been made
+     */
+    private void recover(long lost, int attempt) {
+        if (recovery == null || stopped) {
+            return;
+        }
+        Duration delay = recovery.getDelay(attempt + 1);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Subscribing the consumer [{}] again in {}ms", clientTag, delay.toMillis());
+        }
+        try {
+            taskScheduler.schedule(delay, () -> resubscribe(lost, attempt + 1));
+        } catch (RejectedExecutionException e) {
+            handleException(new RabbitListenerException("The consumer could not be scheduled to subscribe again. It will no longer receive messages", e, bean, null));
+        }
+    }
+
+    private synchronized void resubscribe(long lost, int attempt) {
+        if (stopped || consumers.size() >= concurrency) {
+            // the listener was closed, rescaled or resumed in the meantime
+            return;
+        }
+        boolean subscribed;
+        try {
+            subscribed = addConsumer();
+        } catch (MessageListenerException e) {
+            handleException(new RabbitListenerException(e.getMessage(), e, bean, null));
+            subscribed = false;
+        }
+        if (subscribed) {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - lost);
+            metrics.resubscribed(elapsed);
+            if (LOG.isInfoEnabled()) {
+                LOG.info("The consumer [{}] was subscribed again after {}ms and {} attempt(s)", clientTag, elapsed.toMillis(), attempt);
+            }
+        } else {
+            recover(lost, attempt);
+        }
+    }
+
+    /**
+     * Reacts to a change of the state of the circuit breaker. Consumers are cancelled
+     * when it opens and subscribed again when it closes.
+     */
+    private synchronized void circuitChanged(RabbitCircuitBreaker.State state) {
+        if (state == RabbitCircuitBreaker.State.OPEN) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("The circuit breaker of the consumer [{}] opened. Consumption is paused for {}ms", clientTag, breaker.getOpenDuration().toMillis());
+            }
+            tripped = true;
+            for (ListenerConsumer consumer : consumers) {
+                consumer.cancel();
+            }
+            scheduleProbe();
+        } else if (state == RabbitCircuitBreaker.State.CLOSED) {
+            if (LOG.isInfoEnabled()) {
+                LOG.info("The circuit breaker of the consumer [{}] closed. Consumption is resumed", clientTag);
+            }
+            tripped = false;
+            if (!paused && !stopped) {
+                subscribeAll();
+            }
+        }
+    }
+
+    private void scheduleProbe() {
+        if (!stopped) {
+            breaker.scheduleProbe(this::probe);
+        }
+    }
+
+    /**
+     * Probes the queue with a consumer while the circuit breaker is half open. If no
+     * consumer has an open channel to probe with, the circuit stays open and the probe
+     * is attempted again later.
+     */
+    private void probe() {
+        ListenerConsumer consumer;
+        synchronized (this) {
+            if (stopped || !tripped) {
+                return;
+            }
+            consumer = findOpenConsumer();
+            if (consumer == null) {
+                // replaces consumers that were lost, without subscribing them while the circuit is open
+                try {
+                    start();
+                } catch (MessageListenerException e) {
+                    handleException(new RabbitListenerException(e.getMessage(), e, bean, null));
+                }
+                consumer = findOpenConsumer();
+            }
+            if (consumer == null) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("The consumer [{}] has no open channel to probe the circuit breaker with. The circuit stays open for another {}ms", clientTag, breaker.getOpenDuration().toMillis());
+                }
+                scheduleProbe();
+                return;
+            }
+        }
+        breaker.probe(consumer.channel, consumer);
+    }
+
+    private ListenerConsumer findOpenConsumer() {
+        return consumers.stream().filter(c -> c.channel.isOpen()).findFirst().orElse(null);
+    }
+
+    private void validateConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException(String.format("The concurrency of the consumer [%s] must be at least 1", clientTag));
+        }
+        if (concurrency > 1 && (exclusive || lanes != null)) {
+            throw new IllegalArgumentException(String.format("The consumer [%s] is exclusive or key ordered and cannot have more than one consumer", clientTag));
+        }
+    }
+
+    private Function<RabbitConsumerState, Object> getMessageKey(AnnotationValue<?> keyAnn,
+                                                                String usage,
+                                                                Function<RabbitConsumerState, Object> defaultKey,
+                                                                RabbitPropertyBinder propertyBinder) {
+        String header = keyAnn.get("header", String.class).orElse(null);
+        String property = keyAnn.get("property", String.class).orElse(null);
+        if (StringUtils.isNotEmpty(header)) {
+            return state -> {
+                Map<String, Object> headers = state.getProperties().getHeaders();
+                Object value = headers != null ? headers.get(header) : null;
+                return value != null ? value.toString() : null;
+            };
+        } else if (StringUtils.isNotEmpty(property)) {
+            Function<AMQP.BasicProperties, Object> reader = propertyBinder.findProperty(property)
+                    .orElseThrow(() -> new MessageListenerException(String.format("The %s property [%s] of the consumer [%s] does not match any of the com.rabbitmq.client.BasicProperties", usage, property, clientTag)));
+            return state -> reader.apply(state.getProperties());
+        } else {
+            return defaultKey;
+        }
+    }
+
+    private Duration getDuration(AnnotationValue<AdaptivePrefetch> adaptiveAnn, String member, ConversionService<?> conversionService) {
+        String value = adaptiveAnn.getRequiredValue(member, String.class);
+        return conversionService.convert(value, Duration.class)
+                .orElseThrow(() -> new MessageListenerException(String.format("Could not convert the %s [%s] of the consumer [%s] to a duration", member, value, clientTag)));
+    }
+
+    private void handleException(RabbitListenerException exception) {
+        Object listener = exception.getListener();
+        if (listener instanceof RabbitListenerExceptionHandler) {
+            ((RabbitListenerExceptionHandler) listener).handle(exception);
+        } else {
+            exceptionHandler.handle(exception);
+        }
+    }
+
+    /**
+     * A single subscription of the listener to the queue on its own channel.
+     */
+    private final class ListenerConsumer implements DefaultConsumer {
+
+        private final Channel channel;
+        private final Semaphore bulkhead;
+        private final RabbitAcknowledgementTracker ackTracker;
+        private final RabbitPrefetchController prefetchController;
+        private final RabbitStreamPublisher stream;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private ScheduledFuture<?> schedule;
+        private volatile String consumerTag;
+        private volatile boolean retired;
+        private boolean streamStarted;
+
+        ListenerConsumer(Channel channel) {
+            this.channel = channel;
+            this.bulkhead = !inline && maxPrefetch > 0 ? new Semaphore(maxPrefetch) : null;
+            this.ackTracker = lanes != null && !hasAckArg ? new RabbitAcknowledgementTracker(channel, prefetch > 0 ? prefetch / 2 : DEFAULT_ACK_THRESHOLD) : null;
+            if (adaptiveAnn != null) {
+                int min = adaptiveAnn.getRequiredValue("min", int.class);
+                this.prefetchController = new RabbitPrefetchController(channel, clientTag, prefetch > 0 ? prefetch : min, min, maxPrefetch, adjustBuffer);
+            } else {
+                this.prefetchController = null;
+            }
+            if (streamListener != null) {
+                this.stream = streamListener.createPublisher(channel, this::streamed, this::retire);
+            } else {
+                this.stream = null;
+            }
+        }
+
+        boolean isConsuming() {
+            return consumerTag != null;
+        }
+
+        void start() throws IOException {
+            if (stream != null) {
+                stream.start();
+            } else if (prefetchController != null) {
+                prefetchController.start();
+                schedule = taskScheduler.scheduleAtFixedRate(adjustInterval, adjustInterval, prefetchController);
+            } else if (prefetch > 0) {
+                channel.basicQos(prefetch);
+            }
+        }
+
+        void subscribe() throws IOException {
+            if (consumerTag == null && !retired) {
+                consumerTag = channel.basicConsume(queue, false, clientTag, false, exclusive, arguments, this);
+                if (stream != null && !streamStarted) {
+                    streamStarted = true;
+                    streamListener.invoke(stream);
+                }
+            }
+        }
+
+        private void streamed(RabbitConsumerState state, boolean ack, boolean reQueue) {
+            metrics.settled(ack, reQueue);
+            if (ack && deduplication != null) {
+                deduplication.processed(state);
+            }
+            finished();
+        }
+
+        /**
+         * Invoked when the listener settles a message through its acknowledgement argument.
+         */
+        private void acknowledged(RabbitConsumerState state, boolean ack, boolean reQueue) {
+            metrics.settled(ack, reQueue);
+            if (ack && deduplication != null) {
+                deduplication.processed(state);
+            }
+        }
+
+        void consume() {
+            try {
+                subscribe();
+            } catch (IOException e) {
+                handleException(new RabbitListenerException("An error occurred subscribing to a queue", e, bean, null));
+            }
+        }
+
+        void cancel() {
+            String tag = consumerTag;
+            if (tag != null) {
+                try {
+                    // returns once the broker confirmed the cancel, so the consumer can be subscribed again straight away
+                    channel.basicCancel(tag);
+                    consumerTag = null;
+                } catch (AlreadyClosedException e) {
+                    // the channel is closed or being recovered, and will not subscribe the consumer again
+                    consumerTag = null;
+                } catch (IOException e) {
+                    handleException(new RabbitListenerException("An error occurred cancelling a consumer", e, bean, null));
+                }
+            }
+        }
+
+        /**
+         * Cancels the consumer and removes it from the active consumers. The consumer is
+         * still counted as in flight, drained and closed with the listener until the
+         * messages it received have been processed.
+         */
+        void retire() {
+            if (consumers.remove(this)) {
+                retiring.add(this);
+            }
+            retired = true;
+            cancel();
+            if (stream != null) {
+                // no further messages are delivered, so the stream completes once the buffered ones are emitted
+                stream.complete();
+            }
+            if (consumerTag == null && inFlight.get() == 0) {
+                release();
+            }
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                dispose();
+                channelPool.returnChannel(channel);
+            }
+        }
+
+        /**
+         * Closes the channel instead of returning it to the pool, so the broker
+         * re-queues any message that was not acknowledged straight away.
+         */
+        void close() {
+            if (released.compareAndSet(false, true)) {
+                dispose();
+                if (ackTracker != null) {
+                    try {
+                        ackTracker.flush();
+                    } catch (MessageAcknowledgementException e) {
+                        handleException(new RabbitListenerException(e.getMessage(), e, bean, null));
+                    }
+                }
+                if (channel.isOpen()) {
+                    try {
+                        channel.close();
+                    } catch (AlreadyClosedException e) {
+                        //no-op
+                    } catch (IOException | TimeoutException e) {
+                        if (LOG.isWarnEnabled()) {
+                            LOG.warn(String.format("Failed to close the channel of the consumer [%s]", clientTag), e);
+                        }
+                    }
+                }
+                channelPool.returnChannel(channel);
+            }
+        }
+
+        private void dispose() {
+            if (stream != null) {
+                stream.complete();
+            }
+            if (schedule != null) {
+                schedule.cancel(false);
+            }
+            consumers.remove(this);
+            retiring.remove(this);
+        }
+
+        @Override
+        public void handleCancelOk(String tag) {
+            // the tag was cleared when the cancel returned, and may belong to a new subscription by now
+            if (retired && inFlight.get() == 0) {
+                release();
+            }
+        }
+
+        /**
+         * A connection that recovers automatically opens the channel again and subscribes
+         * this consumer on it, so the consumer is only replaced when the channel itself was
+         * closed or the connection does not recover.
+         */
+        @Override
+        public void handleShutdownSignal(String tag, ShutdownSignalException sig) {
+            if (sig.isHardError() && !sig.isInitiatedByApplication() && channel instanceof Recoverable && !retired && !stopped) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("The connection of the consumer [{}] was lost. The consumer will be subscribed again once the connection is recovered", clientTag);
+                }
+                return;
+            }
+            handleTerminate(tag);
+        }
+
+        @Override
+        public void handleTerminate(String tag) {
+            consumerTag = null;
+            if (!released.get()) {
+                boolean lost = !retired && !stopped;
+                // the channel is released once the messages that were delivered have been processed
+                retire();
+                if (lost && recovery != null) {
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("The channel of the consumer [{}] was terminated. The consumer will be subscribed again", clientTag);
+                    }
+                    recover(System.nanoTime(), 0);
+                } else if (LOG.isDebugEnabled()) {
+                    LOG.debug("The channel was terminated. The consumer [{}] will no longer receive messages", clientTag);
+                }
+            }
+        }
+
+        @Override
+        public void handleDelivery(String tag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) throws IOException {
+            RabbitConsumerState state = new RabbitConsumerState(envelope, properties, body, channel, hasAckArg ? this::acknowledged : null);
+
+            inFlight.incrementAndGet();
+            metrics.delivered(body.length);
+
+            if (ackTracker != null) {
+                ackTracker.delivered(envelope.getDeliveryTag());
+            }
+
+            if (deduplication != null && deduplication.isDuplicate(state)) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("The message [{}] was already processed by the consumer [{}] and will be acknowledged", envelope.getDeliveryTag(), clientTag);
+                }
+                try {
+                    settle(state, true, false);
+                } finally {
+                    skipped();
+                    finished();
+                }
+                return;
+            }
+
+            if (quarantine != null && quarantine.quarantine(state, taskScheduler, this::settle, () -> {
+                skipped();
+                finished();
+            })) {
+                return;
+            }
+
+            if (stream != null) {
+                stream.onDelivery(state);
+                return;
+            }
+
+            long delivered = prefetchController != null ? prefetchController.delivered() : 0L;
+
+            if (inline) {
+                process(state, delivered, this::finished);
+            } else {
+                dispatch(state, delivered);
+            }
+        }
+
+        /**
+         * Hands the message off to the executor or lane of the listener. If the
+         * bulkhead is full the connection thread waits for a permit, which
+         * leaves any further messages with the broker.
+         */
+        private void dispatch(RabbitConsumerState state, long delivered) {
+            if (bulkhead != null) {
+                try {
+                    bulkhead.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    reject(state, delivered);
+                    return;
+                }
+            }
+            Executor executor = lanes != null ? getLane(state) : executorService;
+            Dispatch dispatch = new Dispatch(state, delivered);
+            try {
+                executor.execute(dispatch);
+            } catch (RejectedExecutionException e) {
+                dispatch.rejected(e);
+            }
+        }
+
+        /**
+         * Binds and executes the listener method. The finished callback is executed
+         * once the message has been acknowledged or rejected, which for asynchronous
+         * return types happens after the method has returned.
+         */
+        private void process(RabbitConsumerState state, long delivered, Runnable finished) {
+            execute(state, 1, track(delivered, finished));
+        }
+
+        private void execute(RabbitConsumerState state, int attempt, Runnable done) {
+            Object[] boundArguments = null;
+            long bindStarted = System.nanoTime();
+            try {
+                boundArguments = binder.bind(state);
+            } catch (Throwable e) {
+                handleException(new RabbitListenerException("An error occurred binding the message to the method", e, bean, state));
+            }
+            long started = System.nanoTime();
+            metrics.bound(started - bindStarted);
+
+            if (boundArguments == null) {
+                recordOutcome(false);
+                try {
+                    acknowledge(state, false);
+                } finally {
+                    done.run();
+                }
+                return;
+            }
+
+            Object returnedValue;
+            try {
+                returnedValue = method.invoke(bean, boundArguments);
+            } catch (Throwable e) {
+                complete(state, attempt, started, null, e, done);
+                return;
+            }
+
+            // with an acknowledgement argument the message is still in flight until the returned value completes
+            if (!asyncResult || returnedValue == null) {
+                complete(state, attempt, started, returnedValue, null, done);
+            } else if (returnedValue instanceof CompletionStage) {
+                ((CompletionStage<?>) returnedValue).whenComplete((value, error) ->
+                        completeAsync(state, attempt, started, value, error, done));
+            } else {
+                Publishers.convertPublisher(returnedValue, Publisher.class).subscribe(new Subscriber<Object>() {
+                    private Object value;
+
+                    @Override
+                    public void onSubscribe(Subscription s) {
+                        s.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(Object o) {
+                        value = o;
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        completeAsync(state, attempt, started, null, t, done);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        completeAsync(state, attempt, started, value, null, done);
+                    }
+                });
+            }
+        }
+
+        private Runnable track(long delivered, Runnable finished) {
+            if (prefetchController == null) {
+                return finished;
+            }
+            long started = prefetchController.started(delivered);
+            return () -> {
+                prefetchController.completed(started);
+                finished.run();
+            };
+        }
+
+        private void completeAsync(RabbitConsumerState state, int attempt, long started, Object value, Throwable error, Runnable finished) {
+            try {
+                complete(state, attempt, started, value, error instanceof CompletionException ? error.getCause() : error, finished);
+            } catch (MessageAcknowledgementException e) {
+                handleException(new RabbitListenerException(e.getMessage(), e, bean, state));
+            }
+        }
+
+        private void complete(RabbitConsumerState state, int attempt, long started, Object value, Throwable error, Runnable finished) {
+            metrics.processed(System.nanoTime() - started);
+            recordOutcome(error == null);
+            boolean pending = false;
+            try {
+                if (error != null) {
+                    handleException(new RabbitListenerException("An error occurred executing the listener", error, bean, state));
+                }
+                if (!hasAckArg) {
+                    boolean ack;
+                    if (error != null) {
+                        ack = false;
+                    } else if (booleanResult) {
+                        ack = Boolean.TRUE.equals(value);
+                    } else {
+                        ack = true;
+                    }
+                    if (ack && replies != null && value != null) {
+                        pending = reply(state, value, finished);
+                    } else if (ack || retry == null) {
+                        acknowledge(state, ack);
+                    } else if (retry.shouldRetry(attempt)) {
+                        pending = retry(state, attempt, finished);
+                    } else {
+                        // the last attempt failed so the message is dead lettered
+                        settle(state, false, false);
+                    }
+                }
+            } finally {
+                if (!pending) {
+                    finished.run();
+                }
+            }
+        }
+
+        /**
+         * Publishes the value returned by the listener to the reply address of the message.
+         * The message is acknowledged once the broker has confirmed the reply.
+         *
+         * @return True if the message will be settled once the reply is confirmed
+         */
+        private boolean reply(RabbitConsumerState state, Object value, Runnable finished) {
+            AMQP.BasicProperties requestProperties = state.getProperties();
+            String replyTo = requestProperties.getReplyTo() != null ? requestProperties.getReplyTo() : defaultReplyTo;
+            if (replyTo == null) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("The message [{}] consumed by [{}] has no reply address. The reply will be discarded", state.getEnvelope().getDeliveryTag(), clientTag);
+                }
+                acknowledge(state, true);
+                return false;
+            }
+            byte[] body;
+            AMQP.BasicProperties properties;
+            try {
+                RabbitMessageSerDes<Object> serDes = serDesRegistry.findSerdes((Class<Object>) value.getClass())
+                        .orElseThrow(() -> new MessageListenerException(String.format("Could not serialize the reply of type [%s] to a byte[]", value.getClass())));
+                body = serDes.serialize(value);
+                properties = new AMQP.BasicProperties.Builder()
+                        .correlationId(requestProperties.getCorrelationId())
+                        .contentType(serDes.getContentType(value))
+                        .contentEncoding(serDes.getContentEncoding(value))
+                        .build();
+            } catch (RuntimeException e) {
+                handleException(new RabbitListenerException("An error occurred serializing the reply", e, bean, state));
+                acknowledge(state, false);
+                return false;
+            }
+            replies.publish("", replyTo, properties, body).whenComplete((confirmed, error) -> {
+                try {
+                    if (error != null) {
+                        handleException(new RabbitListenerException("An error occurred publishing the reply", error, bean, state));
+                    }
+                    acknowledge(state, error == null);
+                } catch (MessageAcknowledgementException e) {
+                    handleException(new RabbitListenerException(e.getMessage(), e, bean, state));
+                } finally {
+                    finished.run();
+                }
+            });
+            return true;
+        }
+
+        /**
+         * Schedules the next attempt of a failed message. The message is executed on the
+         * executor of the listener, or on the consumer executor if the listener is executed
+         * by the connection.
+         *
+         * @return True if the retry was scheduled
+         */
+        private boolean retry(RabbitConsumerState state, int attempt, Runnable finished) {
+            boolean scheduled = retry.schedule(state, attempt, () -> {
+                try {
+                    execute(state, attempt + 1, finished);
+                } catch (MessageAcknowledgementException e) {
+                    handleException(new RabbitListenerException(e.getMessage(), e, bean, state));
+                }
+            }, () -> {
+                try {
+                    settle(state, false, true);
+                } finally {
+                    finished.run();
+                }
+            });
+            if (!scheduled) {
+                settle(state, false, true);
+            }
+            return scheduled;
+        }
+
+        private void reject(RabbitConsumerState state, long delivered) {
+            try {
+                settle(state, false, true);
+            } finally {
+                if (prefetchController != null) {
+                    prefetchController.completed(delivered);
+                }
+                finished();
+            }
+        }
+
+        private Executor getLane(RabbitConsumerState state) {
+            int hash = Objects.hashCode(laneKey.apply(state));
+            return lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)];
+        }
+
+        private void recordOutcome(boolean success) {
+            if (breaker != null) {
+                breaker.record(success);
+            }
+        }
+
+        private void skipped() {
+            if (breaker != null) {
+                breaker.skipped();
+            }
+        }
+
+        private void finished() {
+            if (inFlight.decrementAndGet() == 0) {
+                if (retired && consumerTag == null) {
+                    release();
+                }
+                if (stopped) {
+                    synchronized (drainLock) {
+                        drainLock.notifyAll();
+                    }
+                }
+            }
+        }
+
+        private void acknowledge(RabbitConsumerState state, boolean ack) {
+            settle(state, ack, reQueue);
+        }
+
+        /**
+         * Acknowledges or rejects a message. A message is only remembered as processed
+         * once it has been acknowledged, so a message whose reply could not be published
+         * is processed again when it is redelivered.
+         */
+        private void settle(RabbitConsumerState state, boolean ack, boolean reQueue) {
+            metrics.settled(ack, reQueue);
+            if (ackTracker != null) {
+                ackTracker.complete(state.getEnvelope().getDeliveryTag(), ack, reQueue);
+            } else {
+                new RabbitMessageCloseable(state, false, reQueue).withAcknowledge(ack).close();
+            }
+            if (ack && deduplication != null) {
+                deduplication.processed(state);
+            }
+        }
+
+        /**
+         * A message handed off to the executor or lane of the listener.
+         */
+        private final class Dispatch implements Runnable {
+
+            private final RabbitConsumerState state;
+            private final long delivered;
+
+            private Dispatch(RabbitConsumerState state, long delivered) {
+                this.state = state;
+                this.delivered = delivered;
+            }
+
+            @Override
+            public void run() {
+                Runnable finished = bulkhead != null ? () -> {
+                    bulkhead.release();
+                    finished();
+                } : ListenerConsumer.this::finished;
+                try {
+                    process(state, delivered, finished);
+                } catch (MessageAcknowledgementException e) {
+                    handleException(new RabbitListenerException(e.getMessage(), e, bean, state));
+                }
+            }
+
+            /**
+             * Re-queues the message because the executor will not process it.
+             */
+            private void rejected(RejectedExecutionException e) {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+                handleException(new RabbitListenerException("The executor rejected the message. It will be re-queued", e, bean, state));
+                try {
+                    reject(state, delivered);
+                } catch (MessageAcknowledgementException ex) {
+                    handleException(new RabbitListenerException(ex.getMessage(), ex, bean, state));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import java.time.Duration;
+
+/**
+ * Records metrics of the consumers of a {@link RabbitListenerContainer}. An instance
+ * is created for each listener by a {@link RabbitListenerMetricsFactory}, which allows
+ * the meters to be registered up front so that recording a message does not allocate.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public interface RabbitListenerMetrics {
+
+    /**
+     * Metrics that are discarded.
+     */
+    RabbitListenerMetrics NOOP = new RabbitListenerMetrics() { };
+
+    /**
+     * Invoked when a message is delivered to a consumer.
+     *
+     * @param bodySize The size of the body in bytes
+     */
+    default void delivered(int bodySize) {
+    }
+
+    /**
+     * Invoked when the arguments of the method were bound from a message.
+     *
+     * @param nanos The time taken to bind the arguments
+     */
+    default void bound(long nanos) {
+    }
+
+    /**
+     * Invoked when the method completed processing a message, including the time taken
+     * to complete an asynchronous result.
+     *
+     * @param nanos The time taken to process the message
+     */
+    default void processed(long nanos) {
+    }
+
+    /**
+     * Invoked when a message is acknowledged or rejected by the listener.
+     *
+     * @param acknowledged Whether the message was acknowledged
+     * @param reQueued Whether a rejected message was re-queued
+     */
+    default void settled(boolean acknowledged, boolean reQueued) {
+    }
+
+    /**
+     * Invoked when a consumer was subscribed again after its channel was lost.
+     *
+     * @param elapsed The time between losing the channel and subscribing again
+     */
+    default void resubscribed(Duration elapsed) {
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+/**
+ * Creates the {@link RabbitListenerMetrics} of each listener. If no bean of this
+ * type exists, metrics are not recorded.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public interface RabbitListenerMetricsFactory {
+
+    /**
+     * Creates the metrics of a listener. Invoked once the listener is constructed
+     * and before any of its consumers are subscribed.
+     *
+     * @param listener The listener
+     * @return The metrics of the listener
+     */
+    RabbitListenerMetrics create(RabbitListenerContainer listener);
+}
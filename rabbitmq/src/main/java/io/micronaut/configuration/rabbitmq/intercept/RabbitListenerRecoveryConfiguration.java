@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configures how consumers are subscribed again after their channel was lost,
+ * for example because the connection to the broker was interrupted.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@ConfigurationProperties("rabbitmq.listener.recovery")
+public class RabbitListenerRecoveryConfiguration {
+
+    /**
+     * The default enabled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = true;
+
+    /**
+     * The default multiplier value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_MULTIPLIER = 2;
+
+    /**
+     * The default jitter value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_JITTER = 0.5;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private Duration initialDelay = Duration.ofSeconds(1);
+    private Duration maxDelay = Duration.ofSeconds(30);
+    private double multiplier = DEFAULT_MULTIPLIER;
+    private double jitter = DEFAULT_JITTER;
+
+    /**
+     * @return Whether consumers are subscribed again after their channel was lost
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Default value ({@value #DEFAULT_ENABLED}).
+     *
+     * @param enabled Whether consumers are subscribed again after their channel was lost
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The delay before the first attempt to subscribe again
+     */
+    public Duration getInitialDelay() {
+        return initialDelay;
+    }
+
+    /**
+     * Default value (1s).
+     *
+     * @param initialDelay The delay before the first attempt to subscribe again
+     */
+    public void setInitialDelay(Duration initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    /**
+     * @return The maximum delay between attempts
+     */
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Default value (30s).
+     *
+     * @param maxDelay The maximum delay between attempts
+     */
+    public void setMaxDelay(Duration maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * @return The factor the delay is multiplied by after each failed attempt
+     */
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Default value ({@value #DEFAULT_MULTIPLIER}).
+     *
+     * @param multiplier The factor the delay is multiplied by after each failed attempt
+     */
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * @return The fraction the delay is randomly varied by
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Default value ({@value #DEFAULT_JITTER}). Randomizing the delay prevents every
+     * instance of the application from subscribing at the same time.
+     *
+     * @param jitter The fraction the delay is randomly varied by
+     */
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+}
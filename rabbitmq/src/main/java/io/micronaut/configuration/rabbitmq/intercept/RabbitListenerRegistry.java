@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import io.micronaut.inject.ExecutableMethod;
+
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides access to the {@link RabbitListenerContainer} of every
+ * {@link io.micronaut.configuration.rabbitmq.annotation.Queue} method to
+ * pause, resume or rescale consumers at runtime.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Singleton
+public class RabbitListenerRegistry {
+
+    private final Map<String, RabbitListenerContainer> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * @return The listeners
+     */
+    public Collection<RabbitListenerContainer> getListeners() {
+        return Collections.unmodifiableCollection(new ArrayList<>(listeners.values()));
+    }
+
+    /**
+     * @param id The identifier of the listener
+     * @return The listener, if found
+     */
+    public Optional<RabbitListenerContainer> findListener(String id) {
+        return Optional.ofNullable(listeners.get(id));
+    }
+
+    /**
+     * Pauses a listener.
+     *
+     * @param id The identifier of the listener
+     * @return True if the listener was found
+     */
+    public boolean pause(String id) {
+        return findListener(id).map(listener -> {
+            listener.pause();
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Resumes a listener.
+     *
+     * @param id The identifier of the listener
+     * @return True if the listener was found
+     */
+    public boolean resume(String id) {
+        return findListener(id).map(listener -> {
+            listener.resume();
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Changes the number of consumers of a listener.
+     *
+     * @param id The identifier of the listener
+     * @param concurrency The number of consumers
+     * @return True if the listener was found
+     */
+    public boolean setConcurrency(String id, int concurrency) {
+        return findListener(id).map(listener -> {
+            listener.setConcurrency(concurrency);
+            return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Generates a unique identifier for a listener method in the form
+     * {@code SimpleClassName.methodName}.
+     *
+     * @param method The listener method
+     * @return The identifier
+     */
+    synchronized String generateId(ExecutableMethod<?, ?> method) {
+        String base = method.getDeclaringType().getSimpleName() + "." + method.getMethodName();
+        String id = base;
+        int i = 2;
+        while (listeners.containsKey(id)) {
+            id = base + "-" + i++;
+        }
+        return id;
+    }
+
+    /**
+     * @param listener The listener to register
+     */
+    void register(RabbitListenerContainer listener) {
+        listeners.put(listener.getId(), listener);
+    }
+}
@@ -16,37 +16,32 @@
 
 package io.micronaut.configuration.rabbitmq.intercept;
 
-import com.rabbitmq.client.*;
+import com.rabbitmq.client.Channel;
 import io.micronaut.configuration.rabbitmq.annotation.Queue;
 import io.micronaut.configuration.rabbitmq.annotation.RabbitListener;
-import io.micronaut.configuration.rabbitmq.annotation.RabbitProperty;
 import io.micronaut.configuration.rabbitmq.bind.RabbitBinderRegistry;
-import io.micronaut.configuration.rabbitmq.bind.RabbitMessageCloseable;
-import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
+import io.micronaut.configuration.rabbitmq.bind.RabbitPropertyBinder;
 import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
-import io.micronaut.configuration.rabbitmq.exception.RabbitListenerException;
 import io.micronaut.configuration.rabbitmq.exception.RabbitListenerExceptionHandler;
 import io.micronaut.context.BeanContext;
 import io.micronaut.context.processor.ExecutableMethodProcessor;
-import io.micronaut.core.annotation.AnnotationValue;
-import io.micronaut.core.bind.BoundExecutable;
-import io.micronaut.core.bind.DefaultExecutableBinder;
 import io.micronaut.core.convert.ConversionService;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.inject.BeanDefinition;
 import io.micronaut.inject.ExecutableMethod;
 import io.micronaut.inject.qualifiers.Qualifiers;
-import io.micronaut.messaging.Acknowledgement;
-import io.micronaut.messaging.exceptions.MessageAcknowledgementException;
 import io.micronaut.messaging.exceptions.MessageListenerException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PreDestroy;
+import javax.inject.Inject;
 import javax.inject.Qualifier;
 import javax.inject.Singleton;
 import java.io.IOException;
-import java.util.*;
+import java.time.Duration;
+import java.util.Collection;
 
 /**
  * An {@link ExecutableMethodProcessor} that will process all beans annotated
@@ -65,8 +60,10 @@ public class RabbitMQConsumerAdvice implements ExecutableMethodProcessor<RabbitL
     private final ChannelPool channelPool;
     private final RabbitBinderRegistry binderRegistry;
     private final RabbitListenerExceptionHandler exceptionHandler;
-    private final ConversionService conversionService;
-    private final List<Channel> consumerChannels = new ArrayList<>();
+    private final ConversionService<?> conversionService;
+    private final RabbitPropertyBinder propertyBinder;
+    private final RabbitListenerRegistry listenerRegistry;
+    private final Duration shutdownTimeout;
 
     /**
      * Default constructor.
@@ -76,63 +73,57 @@ public class RabbitMQConsumerAdvice implements ExecutableMethodProcessor<RabbitL
      * @param binderRegistry    The registry to bind arguments to the method
      * @param exceptionHandler  The exception handler to use if the consumer isn't a handler
      * @param conversionService The service to convert consume argument values
+     * @param propertyBinder    The binder to read properties used as ordering keys
+     * @param listenerRegistry  The registry to add the listeners to
+     * @param configuration     The configuration of the listeners
      */
+    @Inject
     public RabbitMQConsumerAdvice(BeanContext beanContext,
                                   ChannelPool channelPool,
                                   RabbitBinderRegistry binderRegistry,
                                   RabbitListenerExceptionHandler exceptionHandler,
-                                  ConversionService conversionService) {
+                                  ConversionService<?> conversionService,
+                                  RabbitPropertyBinder propertyBinder,
+                                  RabbitListenerRegistry listenerRegistry,
+                                  RabbitListenerConfiguration configuration) {
         this.beanContext = beanContext;
         this.channelPool = channelPool;
         this.binderRegistry = binderRegistry;
         this.exceptionHandler = exceptionHandler;
         this.conversionService = conversionService;
+        this.propertyBinder = propertyBinder;
+        this.listenerRegistry = listenerRegistry;
+        this.shutdownTimeout = configuration.getShutdownTimeout();
+    }
+
+    /**
+     * @param beanContext       The bean context
+     * @param channelPool       The pool to retrieve channels from
+     * @param binderRegistry    The registry to bind arguments to the method
+     * @param exceptionHandler  The exception handler to use if the consumer isn't a handler
+     * @param conversionService The service to convert consume argument values
+     * @deprecated Use {@link #RabbitMQConsumerAdvice(BeanContext, ChannelPool, RabbitBinderRegistry, RabbitListenerExceptionHandler, ConversionService, RabbitPropertyBinder, RabbitListenerRegistry, RabbitListenerConfiguration)} instead
+     */
+    @Deprecated
+    public RabbitMQConsumerAdvice(BeanContext beanContext,
+                                  ChannelPool channelPool,
+                                  RabbitBinderRegistry binderRegistry,
+                                  RabbitListenerExceptionHandler exceptionHandler,
+                                  ConversionService<?> conversionService) {
+        this(beanContext,
+                channelPool,
+                binderRegistry,
+                exceptionHandler,
+                conversionService,
+                beanContext.getBean(RabbitPropertyBinder.class),
+                beanContext.getBean(RabbitListenerRegistry.class),
+                beanContext.getBean(RabbitListenerConfiguration.class));
     }
 
     @Override
     public void process(BeanDefinition<?> beanDefinition, ExecutableMethod<?, ?> method) {
 
-        AnnotationValue<Queue> queueAnn = method.getAnnotation(Queue.class);
-
-        if (queueAnn != null) {
-            String queue = queueAnn.getRequiredValue(String.class);
-
-            String clientTag = method.getDeclaringType().getSimpleName() + '#' + method.toString();
-
-            boolean reQueue = queueAnn.getRequiredValue("reQueue", boolean.class);
-            boolean exclusive = queueAnn.getRequiredValue("exclusive", boolean.class);
-
-            boolean hasAckArg = Arrays.stream(method.getArguments())
-                    .anyMatch(arg -> Acknowledgement.class.isAssignableFrom(arg.getType()));
-
-            Channel channel = getChannel();
-
-            consumerChannels.add(channel);
-
-            Map<String, Object> arguments = new HashMap<>();
-
-            List<AnnotationValue<RabbitProperty>> propertyAnnotations = method.getAnnotationValuesByType(RabbitProperty.class);
-            Collections.reverse(propertyAnnotations); //set the values in the class first so methods can override
-            propertyAnnotations.forEach((prop) -> {
-                String name = prop.getRequiredValue("name", String.class);
-                String value = prop.getValue(String.class).orElse(null);
-                Class type = prop.get("type", Class.class).orElse(null);
-
-                if (StringUtils.isNotEmpty(name) && StringUtils.isNotEmpty(value)) {
-                    if (type != null && type != Void.class) {
-                        Optional<Object> converted = conversionService.convert(value, type);
-                        if (converted.isPresent()) {
-                            arguments.put(name, converted.get());
-                        } else {
-                            throw new MessageListenerException(String.format("Could not convert the argument [%s] to the required type [%s]", name, type));
-                        }
-                    } else {
-                        arguments.put(name, value);
-                    }
-
-                }
-            });
-
+        if (method.hasAnnotation(Queue.class)) {
             io.micronaut.context.Qualifier<Object> qualifer = beanDefinition
                     .getAnnotationTypeByStereotype(Qualifier.class)
                     .map(type -> Qualifiers.byAnnotation(beanDefinition, type))
@@ -140,98 +131,68 @@ public class RabbitMQConsumerAdvice implements ExecutableMethodProcessor<RabbitL
 
             Class<Object> beanType = (Class<Object>) beanDefinition.getBeanType();
 
-            Class<?> returnType = method.getReturnType().getType();
-
             Object bean = beanContext.findBean(beanType, qualifer).orElseThrow(() -> new MessageListenerException("Could not find the bean to execute the method " + method));
 
-            try {
-                DefaultExecutableBinder<RabbitConsumerState> binder = new DefaultExecutableBinder<>();
-
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("Registering a consumer to queue [{}] with client tag [{}]", queue, clientTag);
-                }
-
-                channel.basicConsume(queue, false, clientTag, false, exclusive, arguments, new DefaultConsumer() {
-
-                    @Override
-                    public void handleTerminate(String consumerTag) {
-                        if (consumerChannels.contains(channel)) {
-                            channelPool.returnChannel(channel);
-                            consumerChannels.remove(channel);
-                            if (LOG.isDebugEnabled()) {
-                                LOG.debug("The channel was terminated. The consumer [{}] will no longer receive messages", clientTag);
-                            }
-                        }
-                    }
-
-                    @Override
-                    public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) throws IOException {
-                        RabbitConsumerState state = new RabbitConsumerState(envelope, properties, body, channel);
-
-                        BoundExecutable boundExecutable = null;
-                        try {
-                            boundExecutable = binder.bind(method, binderRegistry, state);
-                        } catch (Throwable e) {
-                            handleException(new RabbitListenerException("An error occurred binding the message to the method", e, bean, state));
-                        }
-
-                        if (boundExecutable != null) {
-                            try (RabbitMessageCloseable closeable = new RabbitMessageCloseable(state, false, reQueue)) {
-                                Object returnedValue = boundExecutable.invoke(bean);
-
-                                if (!hasAckArg) {
-                                    if (returnType.equals(Boolean.class) || returnType.equals(boolean.class)) {
-                                        Boolean ack = (Boolean) returnedValue;
-                                        closeable.withAcknowledge(ack == null ? false : ack);
-                                    } else {
-                                        closeable.withAcknowledge(true);
-                                    }
-                                }
-                            } catch (MessageAcknowledgementException e) {
-                                throw e;
-                            } catch (Throwable e) {
-                                handleException(new RabbitListenerException("An error occurred executing the listener", e, bean, state));
-                            }
-                        } else {
-                            new RabbitMessageCloseable(state, false, reQueue).withAcknowledge(false).close();
-                        }
-                    }
-                });
-            } catch (MessageAcknowledgementException e) {
-                if (!channel.isOpen()) {
-                    channelPool.returnChannel(channel);
-                    consumerChannels.remove(channel);
-                    if (LOG.isErrorEnabled()) {
-                        LOG.error("The channel was closed due to an exception. The consumer [{}] will no longer receive messages", clientTag);
-                    }
-                }
-                handleException(new RabbitListenerException(e.getMessage(), e, bean, null));
-            } catch (Throwable e) {
-                if (!channel.isOpen()) {
-                    channelPool.returnChannel(channel);
-                    consumerChannels.remove(channel);
-                    if (LOG.isErrorEnabled()) {
-                        LOG.error("The channel was closed due to an exception. The consumer [{}] will no longer receive messages", clientTag);
-                    }
-                }
-                handleException(new RabbitListenerException("An error occurred subscribing to a queue", e, bean, null));
+            String connection = method.getValue(RabbitListener.class, "connection", String.class)
+                    .filter(StringUtils::isNotEmpty)
+                    .orElse(null);
+            ChannelPool listenerChannelPool = channelPool;
+            if (connection != null) {
+                listenerChannelPool = beanContext.findBean(ChannelPool.class, Qualifiers.byName(connection))
+                        .orElseThrow(() -> new MessageListenerException(String.format("Could not find a channel pool for the connection [%s] of the method %s. Check that it is configured under rabbitmq.servers", connection, method)));
             }
+
+            RabbitListenerContainer listener = new RabbitListenerContainer(
+                    listenerRegistry.generateId(method),
+                    bean,
+                    method,
+                    beanContext,
+                    listenerChannelPool,
+                    binderRegistry,
+                    exceptionHandler,
+                    conversionService,
+                    propertyBinder);
+
+            listenerRegistry.register(listener);
+            listener.start();
         }
 
     }
 
+    /**
+     * Shuts down the listeners gracefully. Every consumer is cancelled first so no
+     * further messages are delivered, then the messages that were delivered are given
+     * until the shutdown timeout to be processed before the channels are closed.
+     */
     @PreDestroy
     @Override
     public void close() throws Exception {
-        for (Channel channel : consumerChannels) {
-            channelPool.returnChannel(channel);
+        Collection<RabbitListenerContainer> listeners = listenerRegistry.getListeners();
+        for (RabbitListenerContainer listener : listeners) {
+            listener.stop();
+        }
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        try {
+            for (RabbitListenerContainer listener : listeners) {
+                if (!listener.awaitDrained(Duration.ofNanos(deadline - System.nanoTime())) && LOG.isWarnEnabled()) {
+                    LOG.warn("The messages delivered to the listener [{}] were not processed within the shutdown timeout. They will be re-queued", listener.getId());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (RabbitListenerContainer listener : listeners) {
+                listener.close();
+            }
         }
-        consumerChannels.clear();
     }
 
     /**
-     * @return A channel to publish with
+     * @return A channel from the pool of the default connection
+     * @deprecated Each {@link RabbitListenerContainer} retrieves the channels of its consumers
+     * from the pool of its connection. This method is no longer used
      */
+    @Deprecated
     protected Channel getChannel() {
         try {
             return channelPool.getChannel();
@@ -239,13 +200,4 @@ public class RabbitMQConsumerAdvice implements ExecutableMethodProcessor<RabbitL
             throw new MessageListenerException("Could not retrieve a channel", e);
         }
     }
-
-    private void handleException(RabbitListenerException exception) {
-        Object bean = exception.getListener();
-        if (bean instanceof RabbitListenerExceptionHandler) {
-            ((RabbitListenerExceptionHandler) bean).handle(exception);
-        } else {
-            exceptionHandler.handle(exception);
-        }
-    }
 }
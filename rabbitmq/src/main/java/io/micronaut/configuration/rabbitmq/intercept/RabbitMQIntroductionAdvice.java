@@ -25,8 +25,14 @@ import io.micronaut.configuration.rabbitmq.annotation.RabbitClient;
 import io.micronaut.configuration.rabbitmq.annotation.RabbitProperty;
 import io.micronaut.configuration.rabbitmq.annotation.Binding;
 import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.configuration.rabbitmq.connect.RabbitConnectionBlockedListener;
+import io.micronaut.configuration.rabbitmq.connect.RabbitConnectionFactoryConfig;
+import io.micronaut.configuration.rabbitmq.reactive.RabbitPublishMetrics;
+import io.micronaut.configuration.rabbitmq.reactive.RabbitPublishMetricsFactory;
 import io.micronaut.configuration.rabbitmq.reactive.ReactivePublisher;
+import io.micronaut.configuration.rabbitmq.serdes.RabbitMessageSerDes;
 import io.micronaut.configuration.rabbitmq.serdes.RabbitMessageSerDesRegistry;
+import io.micronaut.context.BeanContext;
 import io.micronaut.core.annotation.AnnotationValue;
 import io.micronaut.core.async.publisher.Publishers;
 import io.micronaut.core.bind.annotation.Bindable;
@@ -35,16 +41,26 @@ import io.micronaut.core.type.Argument;
 import io.micronaut.core.type.ReturnType;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.inject.ExecutableMethod;
+import io.micronaut.inject.qualifiers.Qualifiers;
 import io.micronaut.messaging.annotation.Body;
 import io.micronaut.messaging.annotation.Header;
 import io.micronaut.messaging.exceptions.MessagingClientException;
+import io.micronaut.scheduling.TaskExecutors;
+import io.reactivex.Completable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.inject.Singleton;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Implementation of the {@link RabbitClient} advice annotation.
@@ -58,28 +74,49 @@ public class RabbitMQIntroductionAdvice implements MethodInterceptor<Object, Obj
 
     private static final Logger LOG = LoggerFactory.getLogger(RabbitMQIntroductionAdvice.class);
 
+    private final BeanContext beanContext;
     private final ChannelPool channelPool;
     private final ReactivePublisher<?> reactivePublisher;
+    private final Map<String, ChannelPool> namedChannelPools = new ConcurrentHashMap<>();
+    private final Map<String, ReactivePublisher<?>> namedReactivePublishers = new ConcurrentHashMap<>();
+    private final RabbitConnectionBlockedListener blockedListener;
+    private final Map<String, RabbitConnectionBlockedListener> namedBlockedListeners = new ConcurrentHashMap<>();
+    private final RabbitBlockedPublishConfiguration blockedConfiguration;
+    private final Map<RabbitConnectionBlockedListener, RabbitPublishBuffer> buffers = new ConcurrentHashMap<>();
     private final ConversionService<?> conversionService;
     private final RabbitMessageSerDesRegistry serDesRegistry;
     private final Map<String, BiConsumer<Object, Builder>> properties = new HashMap<>();
+    private final RabbitPublishMetricsFactory metricsFactory;
+    private final Map<ExecutableMethod<?, ?>, RabbitPublishMetrics> methodMetrics = new ConcurrentHashMap<>();
 
     /**
      * Default constructor.
      *
+     * @param beanContext The bean context to retrieve the beans of named connections from
      * @param channelPool The pool to retrieve a channel from
      * @param reactivePublisher The publisher to use when publisher acknowledgement is required
      * @param conversionService The conversion service
      * @param serDesRegistry The registry to find a serDes to serialize the body
+     * @param metricsFactory The factory to create the publish metrics of each method
+     * @param blockedListener The listener that tracks whether the default connection is blocked
+     * @param blockedConfiguration The configuration of publishing while a connection is blocked
      */
-    public RabbitMQIntroductionAdvice(ChannelPool channelPool,
+    public RabbitMQIntroductionAdvice(BeanContext beanContext,
+                                      ChannelPool channelPool,
                                       ReactivePublisher<?> reactivePublisher,
                                       ConversionService<?> conversionService,
-                                      RabbitMessageSerDesRegistry serDesRegistry) {
+                                      RabbitMessageSerDesRegistry serDesRegistry,
+                                      @Nullable RabbitPublishMetricsFactory metricsFactory,
+                                      RabbitConnectionBlockedListener blockedListener,
+                                      RabbitBlockedPublishConfiguration blockedConfiguration) {
+        this.beanContext = beanContext;
         this.channelPool = channelPool;
         this.reactivePublisher = reactivePublisher;
         this.conversionService = conversionService;
         this.serDesRegistry = serDesRegistry;
+        this.metricsFactory = metricsFactory;
+        this.blockedListener = blockedListener;
+        this.blockedConfiguration = blockedConfiguration;
 
 
         properties.put("contentType", (prop, builder) ->
@@ -118,6 +155,8 @@ public class RabbitMQIntroductionAdvice implements MethodInterceptor<Object, Obj
 
             String exchange = client.getValue(String.class).orElse("");
 
+            String connection = client.get("connection", String.class).filter(StringUtils::isNotEmpty).orElse(null);
+
             String routingKey = findRoutingKey(context).orElse("");
 
             Argument bodyArgument = findBodyArgument(context).orElseThrow(() -> new MessagingClientException("No valid message body argument found for method: " + context));
@@ -171,7 +210,16 @@ public class RabbitMQIntroductionAdvice implements MethodInterceptor<Object, Obj
                 builder.headers(headers);
             }
 
-            AMQP.BasicProperties properties = builder.build();
+            RabbitPublishMetrics metrics = getMetrics(context.getExecutableMethod(), exchange, connection != null ? connection : RabbitConnectionFactoryConfig.DEFAULT_NAME);
+
+            Object body = parameterValues.get(bodyArgument.getName());
+            RabbitMessageSerDes<Object> serDes = serDesRegistry.findSerdes((Class<Object>) bodyArgument.getType())
+                    .orElseThrow(() -> new MessagingClientException(String.format("Could not serialize the body argument of type [%s] to a byte[] for publishing", bodyArgument.getType())));
+            long serializeStarted = System.nanoTime();
+            byte[] converted = serDes.serialize(body);
+            metrics.serialized(System.nanoTime() - serializeStarted);
+
+            AMQP.BasicProperties properties = withContentType(builder.build(), serDes, body);
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Sending a message to exchange [{}] with binding [{}] and properties [{}]", exchange, routingKey, properties);
@@ -181,17 +229,20 @@ public class RabbitMQIntroductionAdvice implements MethodInterceptor<Object, Obj
             Class<?> javaReturnType = returnType.getType();
             boolean isReactiveReturnType = Publishers.isConvertibleToPublisher(javaReturnType);
 
-            Object body = parameterValues.get(bodyArgument.getName());
-            byte[] converted = serDesRegistry.findSerdes((Class<Object>) bodyArgument.getType())
-                    .map(serDes -> serDes.serialize(body))
-                    .orElseThrow(() -> new MessagingClientException(String.format("Could not serialize the body argument of type [%s] to a byte[] for publishing", bodyArgument.getType())));
 
             if (isReactiveReturnType) {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Sending the message with publisher confirms.", context);
                 }
 
-                Object reactive = reactivePublisher.publish(exchange, routingKey, properties, converted);
+                ReactivePublisher<?> reactivePublisher = connection != null ? getReactivePublisher(connection) : this.reactivePublisher;
+                RabbitConnectionBlockedListener blocked = connection != null ? getBlockedListener(connection) : this.blockedListener;
+                Object reactive;
+                if (blocked.isBlocked()) {
+                    reactive = publishWhenUnblocked(blocked, metrics, () -> reactivePublisher.publish(exchange, routingKey, properties, converted, metrics));
+                } else {
+                    reactive = reactivePublisher.publish(exchange, routingKey, properties, converted, metrics);
+                }
 
                 return conversionService.convert(reactive, javaReturnType)
                         .orElseThrow(() -> new MessagingClientException("Could not convert the publisher acknowledgement response to the return type of the method"));
@@ -201,11 +252,19 @@ public class RabbitMQIntroductionAdvice implements MethodInterceptor<Object, Obj
                     LOG.debug("Sending the message without publisher confirms.", context);
                 }
 
+                ChannelPool channelPool = connection != null ? getChannelPool(connection) : this.channelPool;
+                RabbitConnectionBlockedListener blocked = connection != null ? getBlockedListener(connection) : this.blockedListener;
+                if ((blocked.isBlocked() || isBuffering(blocked)) && !awaitUnblocked(blocked, channelPool, exchange, routingKey, properties, converted, metrics)) {
+                    return null;
+                }
                 Channel channel = null;
                 try {
                     channel = channelPool.getChannel();
+                    long publishStarted = System.nanoTime();
                     channel.basicPublish(exchange, routingKey, properties, converted);
+                    metrics.published(System.nanoTime() - publishStarted);
                 } catch (Throwable e) {
+                    metrics.failed();
                     throw new MessagingClientException(String.format("Failed to publish a message with exchange: [%s] and routing key [%s]", exchange, routingKey), e);
                 } finally {
                     if (channel != null) {
@@ -221,6 +280,128 @@ public class RabbitMQIntroductionAdvice implements MethodInterceptor<Object, Obj
         }
     }
 
+    private ChannelPool getChannelPool(String connection) {
+        return namedChannelPools.computeIfAbsent(connection, name -> beanContext.findBean(ChannelPool.class, Qualifiers.byName(name))
+                .orElseThrow(() -> new MessagingClientException(String.format("Could not find a channel pool for the connection [%s]. Check that it is configured under rabbitmq.servers", name))));
+    }
+
+    private ReactivePublisher<?> getReactivePublisher(String connection) {
+        return namedReactivePublishers.computeIfAbsent(connection, name -> beanContext.findBean(ReactivePublisher.class, Qualifiers.byName(name))
+                .orElseThrow(() -> new MessagingClientException(String.format("Could not find a reactive publisher for the connection [%s]. Check that it is configured under rabbitmq.servers", name))));
+    }
+
+    private RabbitConnectionBlockedListener getBlockedListener(String connection) {
+        return namedBlockedListeners.computeIfAbsent(connection, name -> beanContext.findBean(RabbitConnectionBlockedListener.class, Qualifiers.byName(name))
+                .orElseThrow(() -> new MessagingClientException(String.format("Could not find the blocked listener of the connection [%s]. Check that it is configured under rabbitmq.servers", name))));
+    }
+
+    /**
+     * @return True if messages buffered while the connection was blocked have not all been published yet
+     */
+    private boolean isBuffering(RabbitConnectionBlockedListener blocked) {
+        RabbitPublishBuffer buffer = buffers.get(blocked);
+        return buffer != null && !buffer.isEmpty();
+    }
+
+    /**
+     * Applies the blocked publish policy before publishing without confirms.
+     *
+     * @return True if the message should be published, false if it was buffered
+     */
+    private boolean awaitUnblocked(RabbitConnectionBlockedListener blocked,
+                                   ChannelPool channelPool,
+                                   String exchange,
+                                   String routingKey,
+                                   AMQP.BasicProperties properties,
+                                   byte[] body,
+                                   RabbitPublishMetrics metrics) {
+        switch (blockedConfiguration.getPolicy()) {
+            case FAIL:
+                metrics.failed();
+                throw blockedException(blocked);
+            case BUFFER:
+                RabbitPublishBuffer buffer = buffers.computeIfAbsent(blocked, b -> new RabbitPublishBuffer(channelPool, b,
+                        beanContext.getBean(ExecutorService.class, Qualifiers.byName(TaskExecutors.IO)), blockedConfiguration.getBufferSize()));
+                if (buffer.offer(exchange, routingKey, properties, body, metrics)) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("The connection [{}] is blocked. The message was buffered", blocked.getName());
+                    }
+                    return false;
+                }
+                metrics.failed();
+                throw new MessagingClientException(String.format("The connection [%s] is blocked by the broker and the buffer of %d messages is full: %s", blocked.getName(), blockedConfiguration.getBufferSize(), blocked.getReason()));
+            default:
+                try {
+                    blocked.getUnblocked().get(blockedConfiguration.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                    return true;
+                } catch (TimeoutException | ExecutionException e) {
+                    metrics.failed();
+                    throw blockedException(blocked);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    metrics.failed();
+                    throw new MessagingClientException(String.format("Interrupted while waiting for the connection [%s] to be unblocked", blocked.getName()), e);
+                }
+        }
+    }
+
+    /**
+     * Applies the blocked publish policy to a publish with confirms. Rather than
+     * blocking the calling thread, the publish is deferred until the connection
+     * is unblocked. Buffering is not applicable because the caller waits for
+     * the confirm, so it is treated as waiting. The deferred publish is therefore
+     * not ordered relative to messages buffered by methods without confirms.
+     */
+    private Completable publishWhenUnblocked(RabbitConnectionBlockedListener blocked, RabbitPublishMetrics metrics, Supplier<Object> publish) {
+        if (blockedConfiguration.getPolicy() == RabbitBlockedPublishConfiguration.Policy.FAIL) {
+            return Completable.error(() -> {
+                metrics.failed();
+                return blockedException(blocked);
+            });
+        }
+        return Completable.create(emitter -> blocked.getUnblocked().whenComplete((value, error) -> emitter.onComplete()))
+                .timeout(blockedConfiguration.getTimeout().toMillis(), TimeUnit.MILLISECONDS, Completable.error(() -> {
+                    metrics.failed();
+                    return blockedException(blocked);
+                }))
+                .andThen(Completable.defer(() -> conversionService.convert(publish.get(), Completable.class)
+                        .orElseThrow(() -> new MessagingClientException("Could not convert the publisher acknowledgement response to a Completable"))));
+    }
+
+    /**
+     * Sets the content type and encoding of the serialized body, unless they
+     * were set on the method or its arguments.
+     */
+    private AMQP.BasicProperties withContentType(AMQP.BasicProperties properties, RabbitMessageSerDes<Object> serDes, Object body) {
+        if (body == null || (properties.getContentType() != null && properties.getContentEncoding() != null)) {
+            return properties;
+        }
+        String contentType = properties.getContentType() != null ? properties.getContentType() : serDes.getContentType(body);
+        String contentEncoding = properties.getContentEncoding() != null ? properties.getContentEncoding() : serDes.getContentEncoding(body);
+        if (contentType == null && contentEncoding == null) {
+            return properties;
+        }
+        return properties.builder()
+                .contentType(contentType)
+                .contentEncoding(contentEncoding)
+                .build();
+    }
+
+    private MessagingClientException blockedException(RabbitConnectionBlockedListener blocked) {
+        return new MessagingClientException(String.format("The connection [%s] is blocked by the broker: %s", blocked.getName(), blocked.getReason()));
+    }
+
+    private RabbitPublishMetrics getMetrics(ExecutableMethod<?, ?> method, String exchange, String connection) {
+        if (metricsFactory == null) {
+            return RabbitPublishMetrics.NOOP;
+        }
+        RabbitPublishMetrics metrics = methodMetrics.get(method);
+        if (metrics == null) {
+            metrics = methodMetrics.computeIfAbsent(method, m -> metricsFactory.create(m, exchange, connection));
+        }
+        return metrics;
+    }
+
     private Map.Entry<String, Object> getNameAndValue(Argument argument, AnnotationValue<?> annotationValue, Map<String, Object> parameterValues) {
         String argumentName = argument.getName();
         String name = annotationValue.get("name", String.class).orElse(annotationValue.getValue(String.class).orElse(argumentName));
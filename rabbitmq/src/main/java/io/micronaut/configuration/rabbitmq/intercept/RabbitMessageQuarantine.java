@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import com.rabbitmq.client.AMQP;
+import io.micronaut.configuration.rabbitmq.annotation.Quarantine;
+import io.micronaut.configuration.rabbitmq.bind.RabbitAcknowledgementListener;
+import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerException;
+import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.core.convert.ConversionService;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.messaging.exceptions.MessageAcknowledgementException;
+import io.micronaut.messaging.exceptions.MessageListenerException;
+import io.micronaut.scheduling.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * Determines how many times a message has been delivered and moves messages
+ * that exceed the limit of a {@link Quarantine} out of the queue.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitMessageQuarantine implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitMessageQuarantine.class);
+
+    private final String queue;
+    private final String clientTag;
+    private final Object bean;
+    private final Consumer<RabbitListenerException> exceptionHandler;
+    private final int maxDeliveries;
+    private final String exchange;
+    private final Duration confirmTimeout;
+    private final RabbitConfirmPublisher publisher;
+    private final RabbitRedeliveryTracker tracker;
+
+    /**
+     * Default constructor.
+     *
+     * @param quarantineAnn The quarantine annotation
+     * @param queue The queue being consumed
+     * @param channelPool The pool to retrieve a channel to publish quarantined messages with
+     * @param conversionService The conversion service to convert the confirm timeout
+     * @param clientTag The client tag of the consumer
+     * @param bean The listener bean
+     * @param exceptionHandler Handles exceptions
+     */
+    RabbitMessageQuarantine(AnnotationValue<Quarantine> quarantineAnn,
+                            String queue,
+                            ChannelPool channelPool,
+                            ConversionService<?> conversionService,
+                            String clientTag,
+                            Object bean,
+                            Consumer<RabbitListenerException> exceptionHandler) {
+        this.queue = queue;
+        this.clientTag = clientTag;
+        this.bean = bean;
+        this.exceptionHandler = exceptionHandler;
+        this.maxDeliveries = Math.max(1, quarantineAnn.getRequiredValue("maxDeliveries", int.class));
+        this.exchange = quarantineAnn.get("exchange", String.class).filter(StringUtils::isNotEmpty).orElse(null);
+        String timeout = quarantineAnn.getRequiredValue("confirmTimeout", String.class);
+        this.confirmTimeout = conversionService.convert(timeout, Duration.class)
+                .orElseThrow(() -> new MessageListenerException(String.format("Could not convert the confirmTimeout [%s] of the consumer [%s] to a duration", timeout, clientTag)));
+        this.publisher = exchange != null ? new RabbitConfirmPublisher(channelPool) : null;
+        this.tracker = new RabbitRedeliveryTracker(quarantineAnn.getRequiredValue("capacity", int.class));
+    }
+
+    /**
+     * @param state The message
+     * @return The number of times the message has been delivered, including this delivery
+     */
+    int getDeliveries(RabbitConsumerState state) {
+        AMQP.BasicProperties properties = state.getProperties();
+        Map<String, Object> headers = properties.getHeaders();
+        long previous = 0;
+        if (headers != null) {
+            Object deliveryCount = headers.get("x-delivery-count");
+            if (deliveryCount instanceof Number) {
+                previous = ((Number) deliveryCount).longValue();
+            }
+            Object deaths = headers.get("x-death");
+            if (deaths instanceof List) {
+                long deathCount = 0;
+                for (Object death : (List<?>) deaths) {
+                    if (death instanceof Map) {
+                        Object count = ((Map<?, ?>) death).get("count");
+                        if (count instanceof Number) {
+                            deathCount += ((Number) count).longValue();
+                        }
+                    }
+                }
+                previous = Math.max(previous, deathCount);
+            }
+        }
+        if (state.getEnvelope().isRedeliver()) {
+            String messageId = properties.getMessageId();
+            long key = messageId != null ? RabbitRedeliveryTracker.hash(messageId) : RabbitRedeliveryTracker.hash(state.getBody());
+            previous = Math.max(previous, tracker.redelivered(key));
+        }
+        return (int) Math.min(Integer.MAX_VALUE, previous + 1);
+    }
+
+    /**
+     * @param deliveries The number of times a message has been delivered
+     * @return True if the message should be quarantined
+     */
+    boolean isExceeded(int deliveries) {
+        return deliveries > maxDeliveries;
+    }
+
+    /**
+     * Moves the message out of the queue if it has been delivered too many times. The
+     * message is settled once the broker has confirmed the quarantined copy, without
+     * blocking the calling thread. A published message is acknowledged, a message
+     * without a quarantine exchange is dead lettered, and a message that could not be
+     * published is re-queued.
+     *
+     * @param state The message
+     * @param taskScheduler The scheduler to fail the publish with once the confirm timeout elapses
+     * @param settle Settles the message
+     * @param completed Invoked once the message has been settled
+     * @return True if the message is being quarantined
+     */
+    boolean quarantine(RabbitConsumerState state, TaskScheduler taskScheduler, RabbitAcknowledgementListener settle, Runnable completed) {
+        int deliveries = getDeliveries(state);
+        if (!isExceeded(deliveries)) {
+            return false;
+        }
+        if (LOG.isWarnEnabled()) {
+            LOG.warn("The message [{}] was delivered {} times to the consumer [{}] and will be quarantined", state.getEnvelope().getDeliveryTag(), deliveries, clientTag);
+        }
+        publish(state, deliveries, taskScheduler).whenComplete((published, error) -> {
+            try {
+                if (error != null) {
+                    exceptionHandler.accept(new RabbitListenerException("The message could not be quarantined. It will be re-queued", error, bean, state));
+                    settle.settled(state, false, true);
+                } else {
+                    settle.settled(state, published, false);
+                }
+            } catch (MessageAcknowledgementException e) {
+                exceptionHandler.accept(new RabbitListenerException(e.getMessage(), e, bean, state));
+            } finally {
+                completed.run();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Publishes the message to the quarantine exchange. The message must be routed
+     * to a queue and confirmed by the broker within the confirm timeout.
+     *
+     * @param state The message
+     * @param deliveries The number of times the message was delivered
+     * @param taskScheduler The scheduler to fail the publish with once the confirm timeout elapses
+     * @return A future that completes with true once the message is confirmed, or with false
+     * if there is no quarantine exchange
+     */
+    CompletableFuture<Boolean> publish(RabbitConsumerState state, int deliveries, TaskScheduler taskScheduler) {
+        if (exchange == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        AMQP.BasicProperties properties = state.getProperties();
+        Map<String, Object> headers = properties.getHeaders() != null ? new HashMap<>(properties.getHeaders()) : new HashMap<>();
+        headers.put("x-quarantined-from", queue);
+        headers.put("x-quarantined-deliveries", deliveries);
+
+        CompletableFuture<Boolean> published = new CompletableFuture<>();
+        ScheduledFuture<?> timeout;
+        try {
+            timeout = taskScheduler.schedule(confirmTimeout, () ->
+                    published.completeExceptionally(new MessageListenerException(String.format("The quarantined message was not confirmed within %dms", confirmTimeout.toMillis()))));
+        } catch (RejectedExecutionException e) {
+            published.completeExceptionally(e);
+            return published;
+        }
+        publisher.publish(exchange, state.getEnvelope().getRoutingKey(), true, properties.builder().headers(headers).build(), state.getBody())
+                .whenComplete((confirmed, error) -> {
+                    timeout.cancel(false);
+                    if (error != null) {
+                        published.completeExceptionally(new MessageListenerException("Failed to publish the message to the quarantine exchange " + exchange, error));
+                    } else {
+                        published.complete(true);
+                    }
+                });
+        return published;
+    }
+
+    @Override
+    public void close() {
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import com.rabbitmq.client.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adjusts the prefetch of a consumer channel based on the observed processing
+ * latency and completion rate. Each adjustment sets the prefetch to the rate
+ * multiplied by the processing time plus the buffer, which is the number of
+ * messages that need to be in flight to keep the consumer busy without
+ * holding messages longer than the buffer. If the consumer used the entire
+ * prefetch and messages did not wait to be processed, the prefetch is what
+ * limited the rate and it is doubled instead.
+ *
+ * The prefetch is applied to the channel rather than to the consumer because
+ * RabbitMQ only applies a change of the consumer prefetch to new consumers.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class RabbitPrefetchController implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitPrefetchController.class);
+
+    private final Channel channel;
+    private final String clientTag;
+    private final int min;
+    private final int max;
+    private final long bufferNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+    private final LongAdder waitingNanos = new LongAdder();
+    private volatile int prefetch;
+    private long lastRun = System.nanoTime();
+
+    /**
+     * Default constructor.
+     *
+     * @param channel The consumer channel
+     * @param clientTag The consumer tag used for logging
+     * @param initial The initial prefetch
+     * @param min The minimum prefetch
+     * @param max The maximum prefetch
+     * @param buffer How long messages should be buffered before they are processed
+     */
+    public RabbitPrefetchController(Channel channel, String clientTag, int initial, int min, int max, Duration buffer) {
+        this.channel = channel;
+        this.clientTag = clientTag;
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.bufferNanos = buffer.toNanos();
+        this.prefetch = clamp(initial);
+    }
+
+    /**
+     * @return The current prefetch
+     */
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Applies the current prefetch to the channel.
+     *
+     * @throws IOException If the prefetch could not be set
+     */
+    public void start() throws IOException {
+        channel.basicQos(prefetch, true);
+    }
+
+    /**
+     * Records the delivery of a message.
+     *
+     * @return The time of the delivery
+     */
+    public long delivered() {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the start of processing of a message.
+     *
+     * @param delivered The time of the delivery
+     * @return The time processing started
+     */
+    public long started(long delivered) {
+        long now = System.nanoTime();
+        waitingNanos.add(now - delivered);
+        return now;
+    }
+
+    /**
+     * Records a message that was acknowledged or rejected.
+     *
+     * @param started The time processing started
+     */
+    public void completed(long started) {
+        inFlight.decrementAndGet();
+        processingNanos.add(System.nanoTime() - started);
+        completed.increment();
+    }
+
+    /**
+     * Adjusts the prefetch based on the messages completed since the last adjustment.
+     */
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        long elapsed = now - lastRun;
+        lastRun = now;
+
+        long count = completed.sumThenReset();
+        long processing = processingNanos.sumThenReset();
+        long waiting = waitingNanos.sumThenReset();
+        boolean saturated = maxInFlight.getAndSet(inFlight.get()) >= prefetch;
+
+        int next;
+        if (count == 0) {
+            next = prefetch;
+        } else {
+            double rate = (double) count / elapsed;
+            long averageProcessing = processing / count;
+            long averageWaiting = waiting / count;
+            int target = (int) Math.min(Integer.MAX_VALUE, Math.ceil(rate * (averageProcessing + bufferNanos)));
+            if (saturated && averageWaiting < bufferNanos / 2) {
+                next = clamp(Math.max(target, prefetch * 2));
+            } else {
+                next = clamp(target);
+            }
+        }
+
+        if (next != prefetch) {
+            try {
+                channel.basicQos(next, true);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Changed the prefetch of the consumer [{}] from {} to {} ({} messages in {}ms)", clientTag, prefetch, next, count, TimeUnit.NANOSECONDS.toMillis(elapsed));
+                }
+                prefetch = next;
+            } catch (IOException | RuntimeException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("Failed to change the prefetch of the consumer [" + clientTag + "]", e);
+                }
+            }
+        }
+    }
+
+    private int clamp(int value) {
+        return Math.min(max, Math.max(min, value));
+    }
+}
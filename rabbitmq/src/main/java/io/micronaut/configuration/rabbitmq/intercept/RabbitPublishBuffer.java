@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.configuration.rabbitmq.connect.RabbitConnectionBlockedListener;
+import io.micronaut.configuration.rabbitmq.reactive.RabbitPublishMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A bounded buffer of messages published while a connection is blocked. The
+ * messages are published in order on another thread once the connection is
+ * unblocked. Publishing stops again if the connection is blocked in the meantime.
+ * Messages published without confirms keep going through the buffer until it
+ * is empty, so they are not published ahead of the buffered messages.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitPublishBuffer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitPublishBuffer.class);
+
+    private final ChannelPool channelPool;
+    private final RabbitConnectionBlockedListener blockedListener;
+    private final Executor executor;
+    private final BlockingQueue<BufferedPublish> publishes;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Default constructor.
+     *
+     * @param channelPool The pool to retrieve a channel from
+     * @param blockedListener The listener that tracks whether the connection is blocked
+     * @param executor The executor to publish the buffered messages on
+     * @param capacity The maximum number of buffered messages
+     */
+    RabbitPublishBuffer(ChannelPool channelPool, RabbitConnectionBlockedListener blockedListener, Executor executor, int capacity) {
+        this.channelPool = channelPool;
+        this.blockedListener = blockedListener;
+        this.executor = executor;
+        this.publishes = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Buffers a message to be published once the connection is unblocked.
+     *
+     * @param exchange The exchange
+     * @param routingKey The routing key
+     * @param properties The properties
+     * @param body The body
+     * @param metrics The metrics to record the publish with
+     * @return False if the buffer is full
+     */
+    boolean offer(String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body, RabbitPublishMetrics metrics) {
+        if (!publishes.offer(new BufferedPublish(exchange, routingKey, properties, body, metrics))) {
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * @return True if no messages are waiting to be published. A message is
+     * removed from the buffer only after it has been published
+     */
+    boolean isEmpty() {
+        return publishes.isEmpty();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            blockedListener.getUnblocked().thenRun(() -> {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    discard(e);
+                }
+            });
+        }
+    }
+
+    private void drain() {
+        Channel channel = null;
+        try {
+            while (!blockedListener.isBlocked()) {
+                BufferedPublish publish = publishes.peek();
+                if (publish == null) {
+                    break;
+                }
+                if (channel == null) {
+                    channel = channelPool.getChannel();
+                }
+                long started = System.nanoTime();
+                channel.basicPublish(publish.exchange, publish.routingKey, publish.properties, publish.body);
+                publish.metrics.published(System.nanoTime() - started);
+                publishes.poll();
+            }
+        } catch (Exception e) {
+            discard(e);
+        } finally {
+            if (channel != null) {
+                channelPool.returnChannel(channel);
+            }
+            scheduled.set(false);
+            if (!publishes.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Discards the buffered messages after they could not be published, so a broken
+     * connection does not leave them to be retried in a loop.
+     */
+    private void discard(Exception e) {
+        int discarded = 0;
+        BufferedPublish publish;
+        while ((publish = publishes.poll()) != null) {
+            publish.metrics.failed();
+            discarded++;
+        }
+        if (LOG.isErrorEnabled()) {
+            LOG.error(String.format("Failed to publish the messages buffered while the connection [%s] was blocked. %d message(s) were discarded", blockedListener.getName(), discarded), e);
+        }
+    }
+
+    /**
+     * A message waiting to be published.
+     */
+    private static final class BufferedPublish {
+
+        private final String exchange;
+        private final String routingKey;
+        private final AMQP.BasicProperties properties;
+        private final byte[] body;
+        private final RabbitPublishMetrics metrics;
+
+        BufferedPublish(String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body, RabbitPublishMetrics metrics) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.properties = properties;
+            this.body = body;
+            this.metrics = metrics;
+        }
+    }
+}
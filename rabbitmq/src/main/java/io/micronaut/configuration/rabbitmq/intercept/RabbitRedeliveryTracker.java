@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the redeliveries of messages in a fixed number of slots. Each slot
+ * holds a fingerprint of the message key and a count in a single long, so the
+ * tracker does not allocate per message and is updated without locks. A message
+ * whose key maps to a slot held by another message replaces it, which can only
+ * cause redeliveries to be under counted.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitRedeliveryTracker {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * Default constructor.
+     *
+     * @param capacity The number of messages to track
+     */
+    RabbitRedeliveryTracker(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Records a redelivery of a message.
+     *
+     * @param key The hash of the message key
+     * @return The number of redeliveries of the message
+     */
+    int redelivered(long key) {
+        int index = (int) key & mask;
+        long fingerprint = key & 0xFFFFFFFF00000000L;
+        while (true) {
+            long current = slots.get(index);
+            long next = current != 0 && (current & 0xFFFFFFFF00000000L) == fingerprint ? current + 1 : fingerprint | 1;
+            if (slots.compareAndSet(index, current, next)) {
+                return (int) next;
+            }
+        }
+    }
+
+    /**
+     * @param value The message id
+     * @return A 64 bit hash of the message id
+     */
+    static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * @param body The message body
+     * @return A 64 bit hash of the message body
+     */
+    static long hash(byte[] body) {
+        long hash = FNV_OFFSET;
+        for (byte b : body) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
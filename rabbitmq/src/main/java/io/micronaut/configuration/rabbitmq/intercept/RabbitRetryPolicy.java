@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import io.micronaut.configuration.rabbitmq.annotation.RetryPolicy;
+import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.core.convert.ConversionService;
+import io.micronaut.messaging.exceptions.MessageListenerException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Calculates the delays between attempts of a {@link RetryPolicy}, or of
+ * subscribing a consumer again after its channel was lost.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitRetryPolicy {
+
+    private final int attempts;
+    private final long delayNanos;
+    private final double multiplier;
+    private final long maxDelayNanos;
+    private final double jitter;
+
+    /**
+     * Default constructor.
+     *
+     * @param retryAnn The retry policy annotation
+     * @param conversionService The conversion service to convert the delays
+     * @param clientTag The consumer tag used in error messages
+     */
+    RabbitRetryPolicy(AnnotationValue<RetryPolicy> retryAnn, ConversionService<?> conversionService, String clientTag) {
+        this(retryAnn.getRequiredValue("attempts", int.class),
+                getDuration(retryAnn, "delay", conversionService, clientTag),
+                retryAnn.getRequiredValue("multiplier", double.class),
+                getDuration(retryAnn, "maxDelay", conversionService, clientTag),
+                retryAnn.getRequiredValue("jitter", double.class));
+    }
+
+    /**
+     * @param attempts The maximum number of attempts
+     * @param delay The delay after the first attempt
+     * @param multiplier The factor the delay is multiplied by after each attempt
+     * @param maxDelay The maximum delay
+     * @param jitter The fraction the delay is randomly varied by
+     */
+    RabbitRetryPolicy(int attempts, Duration delay, double multiplier, Duration maxDelay, double jitter) {
+        this.attempts = Math.max(1, attempts);
+        this.delayNanos = delay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.multiplier = Math.max(1, multiplier);
+        this.jitter = Math.min(1, Math.max(0, jitter));
+    }
+
+    /**
+     * @param attempt The attempt that failed
+     * @return True if the message should be retried
+     */
+    boolean shouldRetry(int attempt) {
+        return attempt < attempts;
+    }
+
+    /**
+     * @param attempt The attempt that failed, starting at 1
+     * @return The delay before the next attempt
+     */
+    Duration getDelay(int attempt) {
+        double delay = Math.min(maxDelayNanos, delayNanos * Math.pow(multiplier, attempt - 1));
+        if (jitter > 0) {
+            delay *= 1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        }
+        return Duration.ofNanos((long) delay);
+    }
+
+    private static Duration getDuration(AnnotationValue<RetryPolicy> retryAnn, String member, ConversionService<?> conversionService, String clientTag) {
+        String value = retryAnn.getRequiredValue(member, String.class);
+        return conversionService.convert(value, Duration.class)
+                .orElseThrow(() -> new MessageListenerException(String.format("Could not convert the %s [%s] of the consumer [%s] to a duration", member, value, clientTag)));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerException;
+import io.micronaut.scheduling.TaskScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Schedules the next attempt of a message that failed according to the
+ * {@link RabbitRetryPolicy} of a listener. The message stays unacknowledged,
+ * and counts towards the prefetch, until its last attempt has completed.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitRetryScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitRetryScheduler.class);
+
+    private final RabbitRetryPolicy policy;
+    private final TaskScheduler taskScheduler;
+    private final Executor executor;
+    private final String clientTag;
+    private final Object bean;
+    private final Consumer<RabbitListenerException> exceptionHandler;
+
+    /**
+     * Default constructor.
+     *
+     * @param policy The retry policy of the listener
+     * @param taskScheduler The scheduler to delay the attempts with
+     * @param executor The executor to execute the attempts on
+     * @param clientTag The client tag of the consumer
+     * @param bean The listener bean
+     * @param exceptionHandler Handles exceptions
+     */
+    RabbitRetryScheduler(RabbitRetryPolicy policy,
+                         TaskScheduler taskScheduler,
+                         Executor executor,
+                         String clientTag,
+                         Object bean,
+                         Consumer<RabbitListenerException> exceptionHandler) {
+        this.policy = policy;
+        this.taskScheduler = taskScheduler;
+        this.executor = executor;
+        this.clientTag = clientTag;
+        this.bean = bean;
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * @param attempt The number of the attempt that failed
+     * @return True if the message should be attempted again
+     */
+    boolean shouldRetry(int attempt) {
+        return policy.shouldRetry(attempt);
+    }
+
+    /**
+     * Schedules the next attempt of a failed message. If the executor rejects the
+     * attempt once the delay has elapsed, the message is re-queued instead.
+     *
+     * @param state The message
+     * @param attempt The number of the attempt that failed
+     * @param retry Executes the next attempt
+     * @param reQueue Re-queues the message and completes it
+     * @return True if the attempt was scheduled. If false, the message must be re-queued by the caller
+     */
+    boolean schedule(RabbitConsumerState state, int attempt, Runnable retry, Runnable reQueue) {
+        Duration delay = policy.getDelay(attempt);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Attempt {} of the consumer [{}] failed. Retrying in {}ms", attempt, clientTag, delay.toMillis());
+        }
+        try {
+            taskScheduler.schedule(delay, () -> {
+                try {
+                    executor.execute(retry);
+                } catch (RejectedExecutionException e) {
+                    exceptionHandler.accept(new RabbitListenerException("The executor rejected the message. It will be re-queued", e, bean, state));
+                    reQueue.run();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            exceptionHandler.accept(new RabbitListenerException("The retry of the message could not be scheduled. It will be re-queued", e, bean, state));
+            return false;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import com.rabbitmq.client.Channel;
+import io.micronaut.configuration.rabbitmq.bind.AcknowledgeableMessage;
+import io.micronaut.configuration.rabbitmq.bind.RabbitAcknowledgementListener;
+import io.micronaut.configuration.rabbitmq.bind.RabbitBinderRegistry;
+import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerException;
+import io.micronaut.core.async.publisher.Publishers;
+import io.micronaut.core.bind.ArgumentBinder;
+import io.micronaut.core.bind.exceptions.UnsatisfiedArgumentException;
+import io.micronaut.core.convert.ArgumentConversionContext;
+import io.micronaut.core.convert.ConversionContext;
+import io.micronaut.core.convert.ConversionError;
+import io.micronaut.core.convert.exceptions.ConversionErrorException;
+import io.micronaut.core.type.Argument;
+import io.micronaut.inject.ExecutableMethod;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Invokes a listener method that accepts the messages of the queue as a single
+ * {@link Publisher} argument. Every consumer of the listener emits its messages
+ * through its own {@link RabbitStreamPublisher}.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitStreamListener {
+
+    private static final int DEFAULT_WINDOW = 256;
+
+    private final Object bean;
+    private final ExecutableMethod<Object, ?> method;
+    private final Argument<?> argument;
+    private final Function<RabbitConsumerState, Object> converter;
+    private final boolean acknowledgeable;
+    private final int window;
+    private final boolean reQueue;
+    private final Consumer<RabbitListenerException> exceptionHandler;
+
+    /**
+     * Default constructor.
+     *
+     * @param bean The listener bean
+     * @param method The listener method
+     * @param binderRegistry The registry to bind the elements of the stream with
+     * @param prefetch The prefetch of the listener, which limits the window of the stream if set
+     * @param reQueue Whether rejected messages should be re-queued
+     * @param exceptionHandler Handles exceptions
+     */
+    RabbitStreamListener(Object bean,
+                         ExecutableMethod<Object, ?> method,
+                         RabbitBinderRegistry binderRegistry,
+                         int prefetch,
+                         boolean reQueue,
+                         Consumer<RabbitListenerException> exceptionHandler) {
+        this.bean = bean;
+        this.method = method;
+        this.argument = method.getArguments()[0];
+        this.converter = getConverter(argument, binderRegistry);
+        this.acknowledgeable = argument.getFirstTypeVariable()
+                .map(element -> element.getType() == AcknowledgeableMessage.class)
+                .orElse(false);
+        this.window = prefetch > 0 ? prefetch : DEFAULT_WINDOW;
+        this.reQueue = reQueue;
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * @param method The listener method
+     * @return True if the method accepts the messages as a stream
+     */
+    static boolean isStream(ExecutableMethod<?, ?> method) {
+        Argument<?>[] arguments = method.getArguments();
+        return arguments.length == 1 && Publishers.isConvertibleToPublisher(arguments[0].getType());
+    }
+
+    /**
+     * @param channel The channel of the consumer
+     * @param settled Invoked with every message, whether it was acknowledged and whether it was re-queued
+     * @param cancelled Invoked when the subscriber cancels the stream
+     * @return A stream of the messages delivered to the consumer
+     */
+    RabbitStreamPublisher createPublisher(Channel channel, RabbitAcknowledgementListener settled, Runnable cancelled) {
+        return new RabbitStreamPublisher(channel, window, reQueue, bean, converter, acknowledgeable, exceptionHandler, settled, cancelled);
+    }
+
+    /**
+     * Invokes the listener method once with the stream of messages. If the method
+     * returns a publisher, it is subscribed to so the pipeline it defines is executed.
+     *
+     * @param stream The stream of the consumer
+     */
+    void invoke(RabbitStreamPublisher stream) {
+        Object result;
+        try {
+            result = method.invoke(bean, Publishers.convertPublisher(stream, argument.getType()));
+        } catch (Throwable e) {
+            exceptionHandler.accept(new RabbitListenerException("An error occurred executing the listener", e, bean, null));
+            return;
+        }
+        if (result != null && Publishers.isConvertibleToPublisher(result)) {
+            Publishers.convertPublisher(result, Publisher.class).subscribe(new Subscriber<Object>() {
+                @Override
+                public void onSubscribe(Subscription s) {
+                    s.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(Object o) {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    exceptionHandler.accept(new RabbitListenerException("An error occurred executing the listener", t, bean, null));
+                    stream.failOutstanding();
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<RabbitConsumerState, Object> getConverter(Argument<?> argument, RabbitBinderRegistry binderRegistry) {
+        Argument<Object> streamElement = (Argument<Object>) argument.getFirstTypeVariable().orElse(Argument.of(Object.class));
+        // the body of an acknowledgeable message is bound and emitted in a message the subscriber settles
+        Argument<Object> element = (Class<?>) streamElement.getType() == AcknowledgeableMessage.class
+                ? (Argument<Object>) streamElement.getFirstTypeVariable().orElse(Argument.of(Object.class))
+                : streamElement;
+        if (RabbitConsumerState.class == (Class<?>) element.getType()) {
+            return state -> state;
+        }
+        ArgumentBinder<Object, RabbitConsumerState> elementBinder = binderRegistry.findArgumentBinder(element);
+        return state -> {
+            ArgumentConversionContext<Object> conversionContext = ConversionContext.of(element);
+            Optional<Object> value = elementBinder.bind(conversionContext, state).getValue();
+            if (value.isPresent()) {
+                return value.get();
+            }
+            Optional<ConversionError> lastError = conversionContext.getLastError();
+            if (lastError.isPresent()) {
+                throw new ConversionErrorException(element, lastError.get());
+            }
+            throw new UnsatisfiedArgumentException(element);
+        };
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.intercept;
+
+import com.rabbitmq.client.Channel;
+import io.micronaut.configuration.rabbitmq.bind.AcknowledgeableMessage;
+import io.micronaut.configuration.rabbitmq.bind.RabbitAcknowledgementListener;
+import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
+import io.micronaut.configuration.rabbitmq.bind.RabbitMessageCloseable;
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerException;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link Publisher} of the messages delivered to a consumer. Messages are
+ * emitted according to the demand of the subscriber. The prefetch of the channel
+ * follows the outstanding demand, so the broker only delivers messages the
+ * subscriber has asked for, up to the window of the stream.
+ *
+ * Messages are acknowledged as soon as they have been emitted (auto-ack on emit),
+ * unless they are emitted as {@link AcknowledgeableMessage} elements. Those are
+ * settled by the subscriber once it has processed them and count towards the
+ * prefetch until then. If the pipeline of the listener fails, the elements that
+ * were not settled are re-queued with {@link #failOutstanding()}.
+ *
+ * Only a single subscriber is supported.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+class RabbitStreamPublisher implements Publisher<Object> {
+
+    private final Channel channel;
+    private final int window;
+    private final boolean reQueue;
+    private final Object bean;
+    private final Function<RabbitConsumerState, Object> converter;
+    private final boolean acknowledgeable;
+    private final Consumer<RabbitListenerException> exceptionHandler;
+    private final RabbitAcknowledgementListener settled;
+    private final Runnable cancelled;
+    private final Queue<RabbitConsumerState> buffer = new ConcurrentLinkedQueue<>();
+    private final Map<Long, AcknowledgeableMessage<Object>> outstanding = new ConcurrentHashMap<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicReference<Subscriber<? super Object>> subscriber = new AtomicReference<>();
+    private volatile boolean cancel;
+    private volatile boolean done;
+    private boolean terminated;
+    private int prefetch = 1;
+
+    /**
+     * Default constructor.
+     *
+     * @param channel The consumer channel
+     * @param window The maximum prefetch
+     * @param reQueue Whether rejected messages should be re-queued
+     * @param bean The listener bean
+     * @param converter Converts a message to the element type of the stream
+     * @param acknowledgeable Whether the converted messages are emitted as {@link AcknowledgeableMessage} elements
+     * @param exceptionHandler Handles exceptions
+     * @param settled Invoked with every message, whether it was acknowledged and whether it was re-queued
+     * @param cancelled Invoked when the subscriber cancels the stream
+     */
+    RabbitStreamPublisher(Channel channel,
+                          int window,
+                          boolean reQueue,
+                          Object bean,
+                          Function<RabbitConsumerState, Object> converter,
+                          boolean acknowledgeable,
+                          Consumer<RabbitListenerException> exceptionHandler,
+                          RabbitAcknowledgementListener settled,
+                          Runnable cancelled) {
+        this.channel = channel;
+        this.window = window;
+        this.reQueue = reQueue;
+        this.bean = bean;
+        this.converter = converter;
+        this.acknowledgeable = acknowledgeable;
+        this.exceptionHandler = exceptionHandler;
+        this.settled = settled;
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Sets the initial prefetch of the channel, which allows a single message
+     * to be delivered before the subscriber requests any.
+     *
+     * @throws IOException If the prefetch could not be set
+     */
+    void start() throws IOException {
+        channel.basicQos(prefetch, true);
+    }
+
+    /**
+     * @param state A message delivered to the consumer
+     */
+    void onDelivery(RabbitConsumerState state) {
+        buffer.offer(state);
+        drain();
+    }
+
+    /**
+     * Completes the stream once the buffered messages have been emitted.
+     */
+    void complete() {
+        done = true;
+        drain();
+    }
+
+    /**
+     * Re-queues the emitted {@link AcknowledgeableMessage} elements that have not
+     * been settled, because the pipeline that would settle them has failed.
+     */
+    void failOutstanding() {
+        for (AcknowledgeableMessage<Object> message : outstanding.values()) {
+            message.nack(false, true);
+        }
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Object> s) {
+        if (!subscriber.compareAndSet(null, s)) {
+            s.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            s.onError(new IllegalStateException("A RabbitMQ message stream only supports a single subscriber"));
+            return;
+        }
+        s.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    cancel();
+                    s.onError(new IllegalArgumentException("Rule 3.9: the requested amount must be positive"));
+                    return;
+                }
+                requested.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                if (!cancel) {
+                    cancel = true;
+                    cancelled.run();
+                    drain();
+                }
+            }
+        });
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Subscriber<? super Object> s = subscriber.get();
+            if (s != null && !terminated) {
+                if (cancel) {
+                    RabbitConsumerState state = buffer.poll();
+                    while (state != null) {
+                        settle(state, false, true);
+                        state = buffer.poll();
+                    }
+                } else {
+                    emit(s);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emit(Subscriber<? super Object> s) {
+        long r = requested.get();
+        long emitted = 0;
+        while (emitted != r && !cancel) {
+            RabbitConsumerState state = buffer.poll();
+            if (state == null) {
+                break;
+            }
+            Object value;
+            try {
+                value = converter.apply(state);
+            } catch (Throwable e) {
+                exceptionHandler.accept(new RabbitListenerException("An error occurred binding the message to the stream", e, bean, state));
+                settle(state, false, reQueue);
+                continue;
+            }
+            if (acknowledgeable) {
+                AcknowledgeableMessage<Object> message = new AcknowledgeableMessage<>(state, value, (ack, requeue) -> settled(state, ack, requeue));
+                outstanding.put(state.getEnvelope().getDeliveryTag(), message);
+                try {
+                    s.onNext(message);
+                } catch (Throwable e) {
+                    exceptionHandler.accept(new RabbitListenerException("An error occurred executing the listener", e, bean, state));
+                    message.nack(false, reQueue);
+                }
+            } else {
+                boolean ack = true;
+                try {
+                    s.onNext(value);
+                } catch (Throwable e) {
+                    ack = false;
+                    exceptionHandler.accept(new RabbitListenerException("An error occurred executing the listener", e, bean, state));
+                }
+                settle(state, ack, reQueue);
+            }
+            emitted++;
+        }
+        if (emitted != 0 && r != Long.MAX_VALUE) {
+            requested.addAndGet(-emitted);
+        }
+        if (done && buffer.isEmpty() && !cancel) {
+            terminated = true;
+            s.onComplete();
+        } else if (!cancel) {
+            adjustPrefetch();
+        }
+    }
+
+    /**
+     * Sets the prefetch to the outstanding demand plus the buffered messages and the
+     * emitted messages the subscriber has not settled yet. The
+     * prefetch is increased as soon as the demand exceeds it but only decreased once
+     * it has halved, to avoid setting it for every message.
+     */
+    private void adjustPrefetch() {
+        long desired = Math.max(1, Math.min(window, requested.get() + buffer.size() + outstanding.size()));
+        if (desired > prefetch || desired <= prefetch / 2) {
+            try {
+                channel.basicQos((int) desired, true);
+                prefetch = (int) desired;
+            } catch (IOException | RuntimeException e) {
+                exceptionHandler.accept(new RabbitListenerException("Failed to change the prefetch of the stream", e, bean, null));
+            }
+        }
+    }
+
+    /**
+     * Settles an {@link AcknowledgeableMessage} element on behalf of the subscriber.
+     */
+    private void settled(RabbitConsumerState state, boolean ack, boolean reQueue) {
+        outstanding.remove(state.getEnvelope().getDeliveryTag());
+        settle(state, ack, reQueue);
+        drain();
+    }
+
+    private void settle(RabbitConsumerState state, boolean ack, boolean reQueue) {
+        try {
+            new RabbitMessageCloseable(state, false, reQueue).withAcknowledge(ack).close();
+        } catch (RuntimeException e) {
+            exceptionHandler.accept(new RabbitListenerException(e.getMessage(), e, bean, state));
+        } finally {
+            settled.settled(state, ack, reQueue);
+        }
+    }
+}
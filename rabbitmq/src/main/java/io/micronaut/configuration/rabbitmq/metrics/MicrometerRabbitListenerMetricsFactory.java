@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.configuration.metrics.annotation.RequiresMetrics;
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerContainer;
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerMetrics;
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerMetricsFactory;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS;
+
+/**
+ * Records the metrics of RabbitMQ listeners with Micrometer. The meters of
+ * each listener are tagged with the identifier of the listener and its queue.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Singleton
+@RequiresMetrics
+@Requires(property = MICRONAUT_METRICS_BINDERS + ".rabbitmq.enabled", notEquals = StringUtils.FALSE)
+public class MicrometerRabbitListenerMetricsFactory implements RabbitListenerMetricsFactory {
+
+    private final RabbitMetricsSupport support;
+
+    /**
+     * Default constructor.
+     *
+     * @param support The meter registry, prefix and tags shared by the RabbitMQ meters
+     */
+    public MicrometerRabbitListenerMetricsFactory(RabbitMetricsSupport support) {
+        this.support = support;
+    }
+
+    @Override
+    public RabbitListenerMetrics create(RabbitListenerContainer listener) {
+        return new ListenerMeters(support.getMeterRegistry(), support.tags("listener", listener.getId(), "queue", listener.getQueue()), listener);
+    }
+
+    /**
+     * The meters of a single listener.
+     */
+    private final class ListenerMeters implements RabbitListenerMetrics {
+
+        private final DistributionSummary bodySize;
+        private final Timer bind;
+        private final Timer process;
+        private final Counter acknowledged;
+        private final Counter rejected;
+        private final Counter reQueued;
+        private final Timer resubscribe;
+
+        ListenerMeters(MeterRegistry registry, Tags listenerTags, RabbitListenerContainer listener) {
+            this.bodySize = DistributionSummary.builder(support.name("listener.body.size"))
+                    .description("The size of the bodies of the messages delivered to the listener")
+                    .baseUnit("bytes")
+                    .tags(listenerTags)
+                    .register(registry);
+            this.bind = Timer.builder(support.name("listener.bind"))
+                    .description("The time taken to bind the arguments of the listener from a message")
+                    .tags(listenerTags)
+                    .register(registry);
+            this.process = Timer.builder(support.name("listener.process"))
+                    .description("The time taken by the listener to process a message")
+                    .tags(listenerTags)
+                    .register(registry);
+            this.acknowledged = Counter.builder(support.name("listener.acks"))
+                    .description("The number of messages acknowledged by the listener")
+                    .tags(listenerTags)
+                    .register(registry);
+            this.rejected = Counter.builder(support.name("listener.nacks"))
+                    .description("The number of messages rejected by the listener without being re-queued")
+                    .tags(listenerTags)
+                    .register(registry);
+            this.reQueued = Counter.builder(support.name("listener.requeues"))
+                    .description("The number of messages rejected by the listener and re-queued")
+                    .tags(listenerTags)
+                    .register(registry);
+            this.resubscribe = Timer.builder(support.name("listener.resubscribe"))
+                    .description("The time taken to subscribe a consumer again after its channel was lost")
+                    .tags(listenerTags)
+                    .register(registry);
+            Gauge.builder(support.name("listener.inflight"), listener, RabbitListenerContainer::getInFlight)
+                    .description("The number of messages delivered to the listener that have not been acknowledged or rejected")
+                    .tags(listenerTags)
+                    .register(registry);
+        }
+
+        @Override
+        public void delivered(int size) {
+            bodySize.record(size);
+        }
+
+        @Override
+        public void bound(long nanos) {
+            bind.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void processed(long nanos) {
+            process.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void settled(boolean ack, boolean reQueue) {
+            if (ack) {
+                acknowledged.increment();
+            } else if (reQueue) {
+                reQueued.increment();
+            } else {
+                rejected.increment();
+            }
+        }
+
+        @Override
+        public void resubscribed(Duration elapsed) {
+            resubscribe.record(elapsed);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.configuration.metrics.annotation.RequiresMetrics;
+import io.micronaut.configuration.rabbitmq.reactive.RabbitPublishMetrics;
+import io.micronaut.configuration.rabbitmq.reactive.RabbitPublishMetricsFactory;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.inject.ExecutableMethod;
+
+import javax.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS;
+
+/**
+ * Records the metrics of RabbitMQ client methods with Micrometer. The meters of
+ * each method are tagged with the client type and method name, the exchange and
+ * the name of the connection, like the meters of the connections.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Singleton
+@RequiresMetrics
+@Requires(property = MICRONAUT_METRICS_BINDERS + ".rabbitmq.enabled", notEquals = StringUtils.FALSE)
+public class MicrometerRabbitPublishMetricsFactory implements RabbitPublishMetricsFactory {
+
+    private final RabbitMetricsSupport support;
+
+    /**
+     * Default constructor.
+     *
+     * @param support The meter registry, prefix and tags shared by the RabbitMQ meters
+     */
+    public MicrometerRabbitPublishMetricsFactory(RabbitMetricsSupport support) {
+        this.support = support;
+    }
+
+    @Override
+    public RabbitPublishMetrics create(ExecutableMethod<?, ?> method, String exchange, String connection) {
+        Tags methodTags = support.tags(
+                "client", method.getDeclaringType().getSimpleName(),
+                "method", method.getMethodName(),
+                "exchange", exchange,
+                "connection", connection);
+        return new PublishMeters(support.getMeterRegistry(), methodTags);
+    }
+
+    /**
+     * The meters of a single client method.
+     */
+    private final class PublishMeters implements RabbitPublishMetrics {
+
+        private final Timer serialize;
+        private final Timer publish;
+        private final Timer confirm;
+        private final Counter nacks;
+        private final Counter failures;
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        PublishMeters(MeterRegistry registry, Tags methodTags) {
+            this.serialize = Timer.builder(support.name("client.serialize"))
+                    .description("The time taken to serialize the body of a message")
+                    .tags(methodTags)
+                    .register(registry);
+            this.publish = Timer.builder(support.name("client.publish"))
+                    .description("The time taken to write a message to the channel")
+                    .tags(methodTags)
+                    .register(registry);
+            this.confirm = Timer.builder(support.name("client.confirm"))
+                    .description("The time taken for the broker to confirm a published message")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .tags(methodTags)
+                    .register(registry);
+            this.nacks = Counter.builder(support.name("client.nacks"))
+                    .description("The number of messages rejected by the broker")
+                    .tags(methodTags)
+                    .register(registry);
+            this.failures = Counter.builder(support.name("client.failures"))
+                    .description("The number of messages that could not be published")
+                    .tags(methodTags)
+                    .register(registry);
+            Gauge.builder(support.name("client.confirms.outstanding"), outstanding, AtomicInteger::get)
+                    .description("The number of published messages awaiting confirmation from the broker")
+                    .tags(methodTags)
+                    .register(registry);
+        }
+
+        @Override
+        public void serialized(long nanos) {
+            serialize.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void published(long nanos) {
+            publish.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void awaitingConfirm() {
+            outstanding.incrementAndGet();
+        }
+
+        @Override
+        public void confirmFinished() {
+            outstanding.decrementAndGet();
+        }
+
+        @Override
+        public void confirmed(long nanos) {
+            confirm.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void nacked() {
+            nacks.increment();
+        }
+
+        @Override
+        public void failed() {
+            failures.increment();
+        }
+    }
+}
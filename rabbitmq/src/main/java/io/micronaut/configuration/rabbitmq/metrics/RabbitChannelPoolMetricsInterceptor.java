@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.configuration.metrics.annotation.RequiresMetrics;
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.configuration.rabbitmq.connect.ChannelPoolMetrics;
+import io.micronaut.configuration.rabbitmq.connect.DefaultChannelPool;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.util.StringUtils;
+
+import javax.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS;
+
+/**
+ * Interceptor of the channel pools to record their metrics. The metrics of
+ * each pool are tagged with the name of its connection.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Singleton
+@RequiresMetrics
+@Requires(property = MICRONAUT_METRICS_BINDERS + ".rabbitmq.enabled", notEquals = StringUtils.FALSE)
+public class RabbitChannelPoolMetricsInterceptor implements BeanCreatedEventListener<ChannelPool> {
+
+    private final RabbitMetricsSupport support;
+
+    /**
+     * Default constructor.
+     *
+     * @param support The meter registry, prefix and tags shared by the RabbitMQ meters
+     */
+    public RabbitChannelPoolMetricsInterceptor(RabbitMetricsSupport support) {
+        this.support = support;
+    }
+
+    @Override
+    public ChannelPool onCreated(BeanCreatedEvent<ChannelPool> event) {
+        if (!(event.getBean() instanceof DefaultChannelPool)) {
+            return event.getBean();
+        }
+        DefaultChannelPool channelPool = (DefaultChannelPool) event.getBean();
+        Tags poolTags = support.tags("connection", channelPool.getName());
+        MeterRegistry registry = support.getMeterRegistry();
+        Gauge.builder(support.name("pool.channels"), channelPool, DefaultChannelPool::getTotalChannels)
+                .description("The number of channels created by the pool that are open")
+                .tags(poolTags)
+                .register(registry);
+        Gauge.builder(support.name("pool.channels.idle"), channelPool, DefaultChannelPool::getIdleChannels)
+                .description("The number of channels waiting in the pool")
+                .tags(poolTags)
+                .register(registry);
+        Gauge.builder(support.name("pool.channels.active"), channelPool, DefaultChannelPool::getActiveChannels)
+                .description("The number of channels retrieved from the pool that have not been returned")
+                .tags(poolTags)
+                .register(registry);
+        Timer acquire = Timer.builder(support.name("pool.acquire"))
+                .description("The time taken to retrieve a channel from the pool, including creating it")
+                .tags(poolTags)
+                .register(registry);
+        Counter created = Counter.builder(support.name("pool.channels.created"))
+                .description("The number of channels created by the pool")
+                .tags(poolTags)
+                .register(registry);
+        Counter discarded = Counter.builder(support.name("pool.channels.discarded"))
+                .description("The number of closed channels removed from the pool")
+                .tags(poolTags)
+                .register(registry);
+        Counter evicted = Counter.builder(support.name("pool.channels.evicted"))
+                .description("The number of channels closed because they were idle for too long")
+                .tags(poolTags)
+                .register(registry);
+        Counter retired = Counter.builder(support.name("pool.channels.retired"))
+                .description("The number of channels closed because they reached their max lifetime")
+                .tags(poolTags)
+                .register(registry);
+        channelPool.setMetrics(new ChannelPoolMetrics() {
+            @Override
+            public void acquired(long nanos) {
+                acquire.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void created() {
+                created.increment();
+            }
+
+            @Override
+            public void discarded() {
+                discarded.increment();
+            }
+
+            @Override
+            public void evicted() {
+                evicted.increment();
+            }
+
+            @Override
+            public void retired() {
+                retired.increment();
+            }
+        });
+        return channelPool;
+    }
+}
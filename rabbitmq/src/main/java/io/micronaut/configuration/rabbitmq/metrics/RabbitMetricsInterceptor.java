@@ -20,7 +20,10 @@ import com.rabbitmq.client.ConnectionFactory;
 import com.rabbitmq.client.impl.MicrometerMetricsCollector;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
 import io.micronaut.configuration.metrics.annotation.RequiresMetrics;
+import io.micronaut.configuration.rabbitmq.connect.NamedRabbitConnectionFactoryConfig;
+import io.micronaut.configuration.rabbitmq.connect.RabbitConnectionFactoryConfig;
 import io.micronaut.context.annotation.Property;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.context.event.BeanCreatedEvent;
@@ -41,7 +44,8 @@ import java.util.stream.Collectors;
 import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS;
 
 /**
- * Interceptor of the connection factory to set the metrics collector.
+ * Interceptor of the connection factory to set the metrics collector. The
+ * metrics of each connection are tagged with the name of the connection.
  *
  * @author James Kleeh
  * @since 1.1.0
@@ -81,7 +85,8 @@ public class RabbitMetricsInterceptor implements BeanCreatedEventListener<Connec
     @Override
     public ConnectionFactory onCreated(BeanCreatedEvent<ConnectionFactory> event) {
         ConnectionFactory connectionFactory = event.getBean();
-        connectionFactory.setMetricsCollector(new MicrometerMetricsCollector(meterRegistryProvider.get(), prefix, tags));
+        String connection = connectionFactory instanceof NamedRabbitConnectionFactoryConfig ? ((NamedRabbitConnectionFactoryConfig) connectionFactory).getName() : RabbitConnectionFactoryConfig.DEFAULT_NAME;
+        connectionFactory.setMetricsCollector(new MicrometerMetricsCollector(meterRegistryProvider.get(), prefix, Tags.of(tags).and("connection", connection)));
         return connectionFactory;
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.configuration.metrics.annotation.RequiresMetrics;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.convert.format.MapFormat;
+import io.micronaut.core.util.CollectionUtils;
+import io.micronaut.core.util.StringUtils;
+
+import javax.annotation.Nullable;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.micronaut.configuration.metrics.micrometer.MeterRegistryFactory.MICRONAUT_METRICS_BINDERS;
+
+/**
+ * Holds the meter registry, the prefix and the common tags shared by the
+ * RabbitMQ meters.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Singleton
+@RequiresMetrics
+@Requires(property = MICRONAUT_METRICS_BINDERS + ".rabbitmq.enabled", notEquals = StringUtils.FALSE)
+public class RabbitMetricsSupport {
+
+    private final Provider<MeterRegistry> meterRegistryProvider;
+    private final String prefix;
+    private final List<Tag> tags;
+
+    /**
+     * Default constructor.
+     *
+     * @param prefix The prefix
+     * @param meterRegistryProvider The meter registry provider
+     * @param tags The tags
+     */
+    public RabbitMetricsSupport(
+            Provider<MeterRegistry> meterRegistryProvider,
+            @Nullable @Property(name = MICRONAUT_METRICS_BINDERS + ".rabbitmq.prefix") String prefix,
+            @Property(name = MICRONAUT_METRICS_BINDERS + ".rabbitmq.tags")
+            @MapFormat(transformation = MapFormat.MapTransformation.FLAT)
+                    Map<String, String> tags) {
+        this.meterRegistryProvider = meterRegistryProvider;
+        this.prefix = prefix == null ? "rabbitmq" : prefix;
+        if (CollectionUtils.isNotEmpty(tags)) {
+            this.tags = tags.entrySet().stream().map(entry -> Tag.of(entry.getKey(), entry.getValue())).collect(Collectors.toList());
+        } else {
+            this.tags = Collections.emptyList();
+        }
+    }
+
+    /**
+     * @return The meter registry
+     */
+    public MeterRegistry getMeterRegistry() {
+        return meterRegistryProvider.get();
+    }
+
+    /**
+     * @param name The name of the meter without the prefix
+     * @return The prefixed name of the meter
+     */
+    public String name(String name) {
+        return prefix + "." + name;
+    }
+
+    /**
+     * @param keyValues The tags specific to the meters, as key value pairs
+     * @return The common tags followed by the given tags
+     */
+    public Tags tags(String... keyValues) {
+        return Tags.of(tags).and(keyValues);
+    }
+}
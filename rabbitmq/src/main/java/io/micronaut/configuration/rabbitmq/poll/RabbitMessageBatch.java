@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.poll;
+
+import com.rabbitmq.client.Channel;
+import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.messaging.exceptions.MessageAcknowledgementException;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A batch of messages retrieved by a {@link RabbitPollingConsumer}. The messages
+ * are acknowledged or rejected together with a single multiple acknowledgement.
+ * The channel the messages were retrieved with is returned to the pool once the
+ * batch is settled. Closing a batch that has not been settled re-queues the
+ * messages. Batches are not thread safe.
+ *
+ * @param <T> The type of the messages
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public class RabbitMessageBatch<T> implements Iterable<T>, AutoCloseable {
+
+    private final Channel channel;
+    private final ChannelPool channelPool;
+    private final List<T> messages;
+    private final List<RabbitConsumerState> states;
+    private final long lastDeliveryTag;
+    private boolean settled;
+
+    /**
+     * Default constructor.
+     *
+     * @param channel The channel the messages were retrieved with
+     * @param channelPool The pool to return the channel to
+     * @param messages The bound messages
+     * @param states The states of the messages
+     * @param lastDeliveryTag The delivery tag of the last message in the batch, or -1 if it is empty
+     */
+    RabbitMessageBatch(Channel channel,
+                       ChannelPool channelPool,
+                       List<T> messages,
+                       List<RabbitConsumerState> states,
+                       long lastDeliveryTag) {
+        this.channel = channel;
+        this.channelPool = channelPool;
+        this.messages = Collections.unmodifiableList(messages);
+        this.states = Collections.unmodifiableList(states);
+        this.lastDeliveryTag = lastDeliveryTag;
+    }
+
+    /**
+     * @return The messages
+     */
+    public List<T> getMessages() {
+        return messages;
+    }
+
+    /**
+     * @return The states of the messages, in the same order as the messages
+     */
+    public List<RabbitConsumerState> getStates() {
+        return states;
+    }
+
+    /**
+     * @return The number of messages
+     */
+    public int size() {
+        return messages.size();
+    }
+
+    /**
+     * @return True if no messages were retrieved
+     */
+    public boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return messages.iterator();
+    }
+
+    /**
+     * Acknowledges every message of the batch.
+     *
+     * @throws MessageAcknowledgementException If an error occurred
+     */
+    public void acknowledge() throws MessageAcknowledgementException {
+        settle(true, false);
+    }
+
+    /**
+     * Rejects every message of the batch.
+     *
+     * @param reQueue Whether the messages should be re-queued
+     * @throws MessageAcknowledgementException If an error occurred
+     */
+    public void reject(boolean reQueue) throws MessageAcknowledgementException {
+        settle(false, reQueue);
+    }
+
+    /**
+     * Re-queues the messages if the batch has not been acknowledged or rejected.
+     *
+     * @throws MessageAcknowledgementException If an error occurred
+     */
+    @Override
+    public void close() throws MessageAcknowledgementException {
+        settle(false, true);
+    }
+
+    private void settle(boolean acknowledge, boolean reQueue) {
+        if (settled) {
+            return;
+        }
+        settled = true;
+        try {
+            if (lastDeliveryTag > -1) {
+                if (acknowledge) {
+                    channel.basicAck(lastDeliveryTag, true);
+                } else {
+                    channel.basicNack(lastDeliveryTag, true, reQueue);
+                }
+            }
+        } catch (IOException e) {
+            throw new MessageAcknowledgementException(acknowledge ? "An error occurred acknowledging a message" : "An error occurred rejecting a message", e);
+        } finally {
+            channelPool.returnChannel(channel);
+        }
+    }
+}
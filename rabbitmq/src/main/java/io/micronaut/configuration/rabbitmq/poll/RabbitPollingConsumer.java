@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.poll;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import io.micronaut.configuration.rabbitmq.bind.RabbitBinderRegistry;
+import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.core.bind.ArgumentBinder;
+import io.micronaut.core.convert.ArgumentConversionContext;
+import io.micronaut.core.convert.ConversionContext;
+import io.micronaut.core.type.Argument;
+import io.micronaut.messaging.exceptions.MessageListenerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Retrieves messages from a queue on demand with {@code basicGet} instead of
+ * subscribing a consumer. Useful for scheduled jobs that process the messages
+ * waiting in a queue and stop.
+ *
+ * The messages are bound with the same binders and serdes as the arguments of
+ * {@link io.micronaut.configuration.rabbitmq.annotation.RabbitListener} methods.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Singleton
+public class RabbitPollingConsumer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RabbitPollingConsumer.class);
+
+    private final ChannelPool channelPool;
+    private final RabbitBinderRegistry binderRegistry;
+
+    /**
+     * Default constructor.
+     *
+     * @param channelPool The pool to retrieve channels from
+     * @param binderRegistry The registry to bind the messages
+     */
+    public RabbitPollingConsumer(ChannelPool channelPool, RabbitBinderRegistry binderRegistry) {
+        this.channelPool = channelPool;
+        this.binderRegistry = binderRegistry;
+    }
+
+    /**
+     * Retrieves up to the given number of messages from a queue.
+     *
+     * @param queue The queue
+     * @param maxMessages The maximum number of messages to retrieve
+     * @param type The type to bind the messages to
+     * @param <T> The type
+     * @return The batch of messages, which must be acknowledged, rejected or closed
+     */
+    public <T> RabbitMessageBatch<T> poll(String queue, int maxMessages, Class<T> type) {
+        return poll(queue, maxMessages, Argument.of(type));
+    }
+
+    /**
+     * Retrieves up to the given number of messages from a queue. Messages that cannot
+     * be bound to the type are rejected without being re-queued and are not part of
+     * the batch.
+     *
+     * @param queue The queue
+     * @param maxMessages The maximum number of messages to retrieve
+     * @param type The type to bind the messages to
+     * @param <T> The type
+     * @return The batch of messages, which must be acknowledged, rejected or closed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RabbitMessageBatch<T> poll(String queue, int maxMessages, Argument<T> type) {
+        Channel channel;
+        try {
+            channel = channelPool.getChannel();
+        } catch (IOException e) {
+            throw new MessageListenerException("Could not retrieve a channel", e);
+        }
+
+        boolean identity = type.getType() == RabbitConsumerState.class;
+        ArgumentBinder<T, RabbitConsumerState> binder = identity ? null : binderRegistry.findArgumentBinder(type);
+        List<T> messages = new ArrayList<>(Math.min(maxMessages, 1024));
+        List<RabbitConsumerState> states = new ArrayList<>(Math.min(maxMessages, 1024));
+        long lastDeliveryTag = -1;
+        try {
+            for (int i = 0; i < maxMessages; i++) {
+                GetResponse response = channel.basicGet(queue, false);
+                if (response == null) {
+                    break;
+                }
+                RabbitConsumerState state = new RabbitConsumerState(response.getEnvelope(), response.getProps(), response.getBody(), channel);
+                Optional<T> message;
+                if (identity) {
+                    message = Optional.of((T) state);
+                } else {
+                    ArgumentConversionContext<T> context = ConversionContext.of(type);
+                    message = binder.bind(context, state).getValue();
+                    if (!message.isPresent()) {
+                        if (LOG.isErrorEnabled()) {
+                            LOG.error("The message [{}] from queue [{}] could not be bound to [{}] and will be rejected: {}",
+                                    state.getEnvelope().getDeliveryTag(), queue, type, context.getLastError().map(Object::toString).orElse("no value"));
+                        }
+                        channel.basicNack(state.getEnvelope().getDeliveryTag(), false, false);
+                        continue;
+                    }
+                }
+                messages.add(message.get());
+                states.add(state);
+                lastDeliveryTag = state.getEnvelope().getDeliveryTag();
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                new RabbitMessageBatch<>(channel, channelPool, messages, states, lastDeliveryTag).close();
+            } catch (RuntimeException ignored) {
+                // the channel is closed if the error was a channel error, which re-queues the messages
+            }
+            throw new MessageListenerException(String.format("An error occurred polling the queue [%s]", queue), e);
+        }
+        return new RabbitMessageBatch<>(channel, channelPool, messages, states, lastDeliveryTag);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.reactive;
+
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.configuration.rabbitmq.connect.NamedRabbitConnectionFactoryConfig;
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Factory;
+import io.micronaut.context.annotation.Parameter;
+import io.reactivex.Completable;
+
+/**
+ * A factory for the {@link ReactivePublisher} of each named connection.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+@Factory
+public class NamedReactivePublisherFactory {
+
+    /**
+     * @param channelPool The pool of channels of the named connection
+     * @return The publisher of the named connection
+     */
+    @EachBean(NamedRabbitConnectionFactoryConfig.class)
+    ReactivePublisher<Completable> namedReactivePublisher(@Parameter ChannelPool channelPool) {
+        return new RxJavaReactivePublisher(channelPool);
+    }
+}
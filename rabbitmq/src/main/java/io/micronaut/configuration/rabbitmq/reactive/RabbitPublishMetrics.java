@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.reactive;
+
+/**
+ * Records metrics of the messages published by a single
+ * {@link io.micronaut.configuration.rabbitmq.annotation.RabbitClient} method. An instance
+ * is created for each method by a {@link RabbitPublishMetricsFactory}, which allows the
+ * meters to be registered up front so that recording a publish does not allocate.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public interface RabbitPublishMetrics {
+
+    /**
+     * Metrics that are discarded.
+     */
+    RabbitPublishMetrics NOOP = new RabbitPublishMetrics() { };
+
+    /**
+     * @param nanos The time taken to serialize the body of a message
+     */
+    default void serialized(long nanos) {
+    }
+
+    /**
+     * @param nanos The time taken to write a message to the channel
+     */
+    default void published(long nanos) {
+    }
+
+    /**
+     * Invoked when a published message starts waiting for the broker to confirm it.
+     */
+    default void awaitingConfirm() {
+    }
+
+    /**
+     * Invoked when a published message stops waiting for the broker to confirm it, whether
+     * it was confirmed, rejected, or the wait was interrupted or cancelled. Invoked once for
+     * each call to {@link #awaitingConfirm()}.
+     */
+    default void confirmFinished() {
+    }
+
+    /**
+     * Invoked when the broker confirmed a message.
+     *
+     * @param nanos The time between publishing the message and receiving the confirm
+     */
+    default void confirmed(long nanos) {
+    }
+
+    /**
+     * Invoked when the broker rejected a message that was awaiting confirmation.
+     */
+    default void nacked() {
+    }
+
+    /**
+     * Invoked when a message could not be published.
+     */
+    default void failed() {
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017-2018 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.micronaut.configuration.rabbitmq.reactive;
+
+import io.micronaut.inject.ExecutableMethod;
+
+/**
+ * Creates the {@link RabbitPublishMetrics} of each
+ * {@link io.micronaut.configuration.rabbitmq.annotation.RabbitClient} method. If no bean
+ * of this type exists, metrics are not recorded.
+ *
+ * @author James Kleeh
+ * @since 1.1.0
+ */
+public interface RabbitPublishMetricsFactory {
+
+    /**
+     * Creates the metrics of a client method. Invoked once per method, the first
+     * time the method is invoked.
+     *
+     * @param method The client method
+     * @param exchange The exchange the method publishes to
+     * @param connection The name of the connection the method publishes on
+     * @return The metrics of the method
+     */
+    RabbitPublishMetrics create(ExecutableMethod<?, ?> method, String exchange, String connection);
+}
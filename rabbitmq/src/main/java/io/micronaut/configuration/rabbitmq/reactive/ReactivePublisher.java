@@ -41,4 +41,20 @@ public interface ReactivePublisher<T> {
      */
     T publish(String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body);
 
+    /**
+     * Publish the message with the provided arguments and record the
+     * publish and the acknowledgement with the given metrics.
+     *
+     * @param exchange The exchange
+     * @param routingKey The routing key
+     * @param properties The properties
+     * @param body The body
+     * @param metrics The metrics to record
+     *
+     * @return The reactive type to subscribe to
+     */
+    default T publish(String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body, RabbitPublishMetrics metrics) {
+        return publish(exchange, routingKey, properties, body);
+    }
+
 }
@@ -20,6 +20,7 @@ import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.ConfirmListener;
 import io.micronaut.configuration.rabbitmq.connect.ChannelPool;
+import io.micronaut.context.annotation.Primary;
 import io.micronaut.messaging.exceptions.MessagingClientException;
 import io.reactivex.*;
 import io.reactivex.disposables.Disposable;
@@ -33,12 +34,15 @@ import java.util.function.Consumer;
 
 /**
  * A reactive publisher implementation that uses a single channel per publish
- * operation and returns an RxJava2 {@link Completable}.
+ * operation and returns an RxJava2 {@link Completable}. This bean publishes
+ * with the default connection. The publishers of named connections are
+ * created by {@link NamedReactivePublisherFactory}.
  *
  * @author James Kleeh
  * @since 1.1.0
  */
 @Singleton
+@Primary
 public class RxJavaReactivePublisher implements ReactivePublisher<Completable> {
 
     private final ChannelPool channelPool;
@@ -54,9 +58,15 @@ public class RxJavaReactivePublisher implements ReactivePublisher<Completable> {
 
     @Override
     public Completable publish(String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body) {
+        return publish(exchange, routingKey, properties, body, RabbitPublishMetrics.NOOP);
+    }
+
+    @Override
+    public Completable publish(String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body, RabbitPublishMetrics metrics) {
         return getChannel()
             .flatMap(this::initializePublish)
-            .flatMapCompletable(channel -> publishInternal(channel, exchange, routingKey, properties, body));
+            .doOnError(e -> metrics.failed())
+            .flatMapCompletable(channel -> publishInternal(channel, exchange, routingKey, properties, body, metrics));
     }
 
     /**
@@ -93,30 +103,64 @@ public class RxJavaReactivePublisher implements ReactivePublisher<Completable> {
      * @return A completable that terminates when the publish has been acknowledged
      */
     protected Completable publishInternal(Channel channel, String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body) {
+        return publishInternal(channel, exchange, routingKey, properties, body, RabbitPublishMetrics.NOOP);
+    }
+
+    /**
+     * Publishes the message to the channel and records the time taken to publish
+     * the message and for the broker to confirm it.
+     *
+     * @see #publishInternal(Channel, String, String, AMQP.BasicProperties, byte[])
+     *
+     * @param channel The channel to publish the message to
+     * @param exchange The exchange
+     * @param routingKey The routing key
+     * @param properties The properties
+     * @param body The message body
+     * @param metrics The metrics to record
+     *
+     * @return A completable that terminates when the publish has been acknowledged
+     */
+    protected Completable publishInternal(Channel channel, String exchange, String routingKey, AMQP.BasicProperties properties, byte[] body, RabbitPublishMetrics metrics) {
         return Completable.create((emitter) -> {
             AtomicReference<Boolean> acknowledgement = new AtomicReference<>(null);
             Disposable listener = createListener(channel, acknowledgement);
             try {
+                long started = System.nanoTime();
                 channel.basicPublish(
                         exchange,
                         routingKey,
                         properties,
                         body
                 );
-
-                synchronized (acknowledgement) {
-                    while (acknowledgement.get() == null) {
-                        acknowledgement.wait();
+                long published = System.nanoTime();
+                metrics.published(published - started);
+                metrics.awaitingConfirm();
+
+                try {
+                    synchronized (acknowledgement) {
+                        while (acknowledgement.get() == null) {
+                            acknowledgement.wait();
+                        }
+                        if (acknowledgement.get()) {
+                            metrics.confirmed(System.nanoTime() - published);
+                            emitter.onComplete();
+                        } else {
+                            metrics.nacked();
+                            emitter.onError(new MessagingClientException("Message could not be delivered to the broker"));
+                        }
                     }
-                    if (acknowledgement.get()) {
-                        emitter.onComplete();
-                    } else {
-                        emitter.onError(new MessagingClientException("Message could not be delivered to the broker"));
+                } finally {
+                    // also reached when the wait is interrupted because the subscription was disposed
+                    metrics.confirmFinished();
+                    if (!listener.isDisposed()) {
+                        listener.dispose();
                     }
                 }
 
             } catch (IOException e) {
                 listener.dispose();
+                metrics.failed();
                 emitter.onError(e);
             }
         }).doFinally(() -> returnChannel(channel));
@@ -132,7 +176,10 @@ public class RxJavaReactivePublisher implements ReactivePublisher<Completable> {
     protected Single<Channel> initializePublish(Channel channel) {
         return Single.create(emitter -> {
             try {
-                channel.confirmSelect();
+                // channels are put in confirm mode once, either here or when the pool was warmed up
+                if (channel.getNextPublishSeqNo() == 0) {
+                    channel.confirmSelect();
+                }
                 emitter.onSuccess(channel);
             } catch (IOException e) {
                 emitter.onError(new MessagingClientException("Failed to enable publisher confirms on the channel", e));
@@ -64,6 +64,16 @@ public class JavaLangRabbitMessageSerDes implements RabbitMessageSerDes<Object>
         return findSerDes(data.getClass()).serialize(data);
     }
 
+    @Override
+    public String getContentType(Object data) {
+        return findSerDes(data.getClass()).getContentType(data);
+    }
+
+    @Override
+    public String getContentEncoding(Object data) {
+        return findSerDes(data.getClass()).getContentEncoding(data);
+    }
+
     @Override
     public Object deserialize(RabbitConsumerState messageState, Class<Object> type) {
         return findSerDes(type).deserialize(messageState, type);
@@ -188,6 +198,16 @@ public class JavaLangRabbitMessageSerDes implements RabbitMessageSerDes<Object>
             }
         }
 
+        @Override
+        public String getContentType(String data) {
+            return "text/plain";
+        }
+
+        @Override
+        public String getContentEncoding(String data) {
+            return ENCODING.name();
+        }
+
         @Override
         public boolean supports(Class<String> type) {
             return type == String.class;
@@ -38,6 +38,11 @@ public class JsonRabbitMessageSerDes implements RabbitMessageSerDes<Object> {
      */
     public static final Integer ORDER = 200;
 
+    /**
+     * The content type of the serialized data.
+     */
+    public static final String CONTENT_TYPE = "application/json";
+
     private final JacksonObjectSerializer objectSerializer;
 
     /**
@@ -62,6 +67,11 @@ public class JsonRabbitMessageSerDes implements RabbitMessageSerDes<Object> {
                 .orElseThrow(() -> new SerializationException("Unable to serialize data: " + data.getClass()));
     }
 
+    @Override
+    public String getContentType(Object data) {
+        return CONTENT_TYPE;
+    }
+
     @Override
     public int getOrder() {
         return ORDER;
@@ -19,6 +19,8 @@ package io.micronaut.configuration.rabbitmq.serdes;
 import io.micronaut.configuration.rabbitmq.bind.RabbitConsumerState;
 import io.micronaut.core.order.Ordered;
 
+import javax.annotation.Nullable;
+
 /**
  * Responsible for serializing and deserializing RabbitMQ message bodies.
  *
@@ -46,6 +48,24 @@ public interface RabbitMessageSerDes<T> extends Ordered {
      */
     byte[] serialize(T data);
 
+    /**
+     * @param data The data being serialized
+     * @return The content type of the serialized data, or null if it is not known
+     */
+    @Nullable
+    default String getContentType(T data) {
+        return null;
+    }
+
+    /**
+     * @param data The data being serialized
+     * @return The content encoding of the serialized data, or null if it is not known
+     */
+    @Nullable
+    default String getContentEncoding(T data) {
+        return null;
+    }
+
     /**
      * Determines if this serdes supports the given type.
      *
@@ -0,0 +1,56 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class AdaptivePrefetchSpec extends AbstractRabbitMQTest {
+
+    void "test consuming with an adaptive prefetch"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "micronaut.executors.adaptive-test.type": "fixed",
+                 "micronaut.executors.adaptive-test.nThreads": 4,
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 10)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        200.times { producer.go("abc".bytes) }
+
+        then:
+        conditions.eventually {
+            consumer.messages.get() == 200
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "AdaptivePrefetchSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("adaptive")
+        void go(byte[] data)
+
+    }
+
+    @Requires(property = "spec.name", value = "AdaptivePrefetchSpec")
+    @RabbitListener(executor = "adaptive-test")
+    static class MyConsumer {
+
+        public static AtomicInteger messages = new AtomicInteger()
+
+        @Queue("adaptive")
+        @AdaptivePrefetch(min = 1, max = 50, interval = "100ms")
+        void listen(byte[] data) {
+            Thread.sleep(5)
+            messages.incrementAndGet()
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.bind.RabbitAcknowledgement
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerContainer
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.messaging.annotation.Header
+import io.reactivex.Completable
+import io.reactivex.Single
+import io.reactivex.schedulers.Schedulers
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+class AsyncReturnSpec extends AbstractRabbitMQTest {
+
+    void "test acknowledging when an asynchronous return value completes"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+
+        when:
+        producer.go("abc", "false").blockingGet()
+        producer.go("def", "true").blockingGet()
+
+        then:
+        //2 for the 2 produces above, 1 for the requeued nack that is ack'd
+        conditions.eventually {
+            consumer.messages.get() == 3
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test a message acknowledged by the listener is in flight until the return value completes"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        AckConsumer consumer = applicationContext.getBean(AckConsumer)
+        RabbitListenerContainer listener = applicationContext.getBean(RabbitListenerRegistry).findListener("AckConsumer.listen").get()
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+
+        when: "the message is acknowledged before the return value completes"
+        producer.ack("abc").blockingAwait()
+
+        then:
+        conditions.eventually {
+            consumer.acknowledged.get() == 1
+        }
+        listener.inFlight == 1
+
+        when:
+        consumer.latch.countDown()
+
+        then:
+        conditions.eventually {
+            listener.inFlight == 0
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "AsyncReturnSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("async")
+        Completable go(String data, @Header String ack)
+
+        @Binding("async-ack")
+        Completable ack(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "AsyncReturnSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static AtomicInteger messages = new AtomicInteger()
+        private AtomicBoolean nack = new AtomicBoolean(false)
+
+        @Queue(value = "async", reQueue = true, prefetch = 5)
+        Single<Boolean> listen(String data, @Header String ack) {
+            Single.fromCallable({
+                Boolean acknowledge = Boolean.valueOf(ack)
+                //only nack and requeue once
+                if (!acknowledge && !nack.compareAndSet(false, true)) {
+                    acknowledge = true
+                }
+                messages.incrementAndGet()
+                acknowledge
+            }).subscribeOn(Schedulers.io())
+        }
+    }
+
+    @Requires(property = "spec.name", value = "AsyncReturnSpec")
+    @RabbitListener
+    static class AckConsumer {
+
+        public static AtomicInteger acknowledged = new AtomicInteger()
+        public static CountDownLatch latch = new CountDownLatch(1)
+
+        @Queue("async-ack")
+        Completable listen(String data, RabbitAcknowledgement acknowledgement) {
+            acknowledgement.ack()
+            acknowledged.incrementAndGet()
+            Completable.fromAction({
+                latch.await(10, TimeUnit.SECONDS)
+            }).subscribeOn(Schedulers.io())
+        }
+    }
+}
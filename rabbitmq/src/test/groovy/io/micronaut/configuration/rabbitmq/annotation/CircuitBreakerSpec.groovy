@@ -0,0 +1,73 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerContainer
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class CircuitBreakerSpec extends AbstractRabbitMQTest {
+
+    void "test consumption is paused while the listener fails and resumed once a probe succeeds"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+        RabbitListenerContainer listener = applicationContext.getBean(RabbitListenerRegistry).findListener("MyConsumer.listen").get()
+
+        when:
+        consumer.failing = true
+        4.times { producer.go("fail") }
+
+        then: "the circuit opens after the minimum number of failures"
+        conditions.eventually {
+            listener.tripped
+            listener.activeConsumers == 0
+        }
+
+        when:
+        consumer.failing = false
+        producer.go("abc")
+
+        then: "a probe succeeds and consumption resumes"
+        conditions.eventually {
+            !listener.tripped
+            listener.activeConsumers == 1
+            consumer.messages.contains("abc")
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "CircuitBreakerSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("breaker")
+        void go(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "CircuitBreakerSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static List<String> messages = new CopyOnWriteArrayList<>()
+        public static volatile boolean failing
+
+        @Queue(value = "breaker", reQueue = false)
+        @ListenerCircuitBreaker(window = 4, minimumCalls = 4, failureRate = 1, openDuration = "500ms")
+        void listen(String data) {
+            if (failing) {
+                throw new IllegalStateException("Unavailable")
+            }
+            messages.add(data)
+        }
+    }
+}
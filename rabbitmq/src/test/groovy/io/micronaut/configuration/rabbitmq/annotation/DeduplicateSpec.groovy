@@ -0,0 +1,113 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.bind.RabbitAcknowledgement
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class DeduplicateSpec extends AbstractRabbitMQTest {
+
+    void "test duplicate messages are acknowledged without invoking the method"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        producer.go("1", "abc")
+        producer.go("1", "abc")
+        producer.go("2", "def")
+        producer.go(null, "ghi")
+        producer.go(null, "ghi")
+        producer.go("1", "abc")
+
+        then:
+        conditions.eventually {
+            consumer.messages == ["abc", "def", "ghi", "ghi"]
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test messages rejected through an acknowledgement are processed again"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": "DeduplicateAckSpec"], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+        AckProducer producer = applicationContext.getBean(AckProducer)
+        AckConsumer consumer = applicationContext.getBean(AckConsumer)
+
+        when:
+        producer.go("1", "abc")
+
+        then: "the re-queued message is not treated as a duplicate"
+        conditions.eventually {
+            consumer.messages == ["abc", "abc"]
+        }
+
+        when:
+        producer.go("1", "abc")
+        sleep(500)
+
+        then: "the acknowledged message is remembered"
+        consumer.messages == ["abc", "abc"]
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "DeduplicateSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("dedup")
+        void go(@RabbitProperty("messageId") String messageId, String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "DeduplicateSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static List<String> messages = new CopyOnWriteArrayList<>()
+
+        @Queue("dedup")
+        @Deduplicate(ttl = "1m", capacity = 100)
+        void listen(String data) {
+            messages.add(data)
+        }
+    }
+
+    @Requires(property = "spec.name", value = "DeduplicateAckSpec")
+    @RabbitClient
+    static interface AckProducer {
+
+        @Binding("dedup-ack")
+        void go(@RabbitProperty("messageId") String messageId, String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "DeduplicateAckSpec")
+    @RabbitListener
+    static class AckConsumer {
+
+        public static List<String> messages = new CopyOnWriteArrayList<>()
+
+        @Queue("dedup-ack")
+        @Deduplicate(ttl = "1m", capacity = 100)
+        void listen(String data, RabbitAcknowledgement acknowledgement) {
+            messages.add(data)
+            if (messages.size() == 1) {
+                acknowledgement.nack(false, true)
+            } else {
+                acknowledgement.ack()
+            }
+        }
+    }
+}
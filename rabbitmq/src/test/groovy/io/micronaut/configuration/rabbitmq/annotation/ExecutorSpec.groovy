@@ -0,0 +1,60 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.inject.qualifiers.Qualifiers
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+
+class ExecutorSpec extends AbstractRabbitMQTest {
+
+    void "test consuming on a dedicated executor"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "micronaut.executors.rabbit-test.type": "fixed",
+                 "micronaut.executors.rabbit-test.nThreads": 1,
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+        ExecutorService executorService = applicationContext.getBean(ExecutorService, Qualifiers.byName("rabbit-test"))
+        String threadName = executorService.submit({ Thread.currentThread().name } as java.util.concurrent.Callable<String>).get()
+
+        when:
+        producer.go("abc".bytes)
+        producer.go("def".bytes)
+
+        then:
+        conditions.eventually {
+            consumer.threads.size() == 2
+            consumer.threads.every { it == threadName }
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "ExecutorSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("executor")
+        void go(byte[] data)
+
+    }
+
+    @Requires(property = "spec.name", value = "ExecutorSpec")
+    @RabbitListener(executor = "rabbit-test")
+    static class MyConsumer {
+
+        public static List<String> threads = new CopyOnWriteArrayList<>()
+
+        @Queue(value = "executor", prefetch = 1)
+        void listen(byte[] data) {
+            threads.add(Thread.currentThread().name)
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.messaging.annotation.Header
+import spock.util.concurrent.PollingConditions
+
+import javax.annotation.Nullable
+import java.util.concurrent.CopyOnWriteArrayList
+
+class HeaderTypesSpec extends AbstractRabbitMQTest {
+
+    void "test headers are converted from their field table type"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        producer.go(5, "abc", [a: "b"], "body".bytes)
+
+        then:
+        conditions.eventually {
+            consumer.messages.size() == 1
+            consumer.messages[0] == [5L, "abc".bytes, [a: "b"], null]
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "HeaderTypesSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("header-types")
+        void go(@Header Integer count, @Header String raw, @Header Map<String, Object> table, byte[] data)
+
+    }
+
+    @Requires(property = "spec.name", value = "HeaderTypesSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static List<List<Object>> messages = new CopyOnWriteArrayList<>()
+
+        @Queue("header-types")
+        void listen(@Header Long count,
+                    @Header byte[] raw,
+                    @Header Map<String, String> table,
+                    @Nullable @Header String missing,
+                    byte[] data) {
+            messages.add([count, raw, table, missing])
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.messaging.annotation.Header
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+class KeyOrderedSpec extends AbstractRabbitMQTest {
+
+    void "test messages with the same key are processed in order"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        50.times { i ->
+            producer.go("a", i)
+            producer.go("b", i)
+            producer.go("c", i)
+        }
+
+        then:
+        conditions.eventually {
+            consumer.messages.size() == 3
+            consumer.messages.values().every { it == (0..49).toList() }
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "KeyOrderedSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("ordered")
+        void go(@Header("x-key") String key, Integer data)
+
+    }
+
+    @Requires(property = "spec.name", value = "KeyOrderedSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static Map<String, List<Integer>> messages = new ConcurrentHashMap<>()
+
+        @Queue(value = "ordered", prefetch = 20)
+        @KeyOrdered(lanes = 4, header = "x-key")
+        void listen(Integer data, @Header("x-key") String key) {
+            messages.computeIfAbsent(key, { new CopyOnWriteArrayList<>() }).add(data)
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.bind.LazyBody
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.messaging.annotation.Header
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+
+class LazyBodySpec extends AbstractRabbitMQTest {
+
+    void "test the body is only deserialized when requested"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        producer.go(new Person(name: "abc"), "true")
+        producer.go(new Person(name: "def"), "false")
+        producer.go(new Person(name: "ghi"), "true")
+
+        then:
+        conditions.eventually {
+            consumer.received.get() == 3
+            consumer.names == ["abc", "ghi"]
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    static class Person {
+        String name
+    }
+
+    @Requires(property = "spec.name", value = "LazyBodySpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("lazy")
+        void go(Person data, @Header String read)
+
+    }
+
+    @Requires(property = "spec.name", value = "LazyBodySpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static AtomicInteger received = new AtomicInteger()
+        public static List<String> names = new CopyOnWriteArrayList<>()
+
+        @Queue("lazy")
+        void listen(LazyBody<Person> data, @Header String read) {
+            if (Boolean.valueOf(read)) {
+                assert data.get().is(data.get())
+                names.add(data.get().name)
+            }
+            received.incrementAndGet()
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.endpoint.RabbitListenersEndpoint
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.http.HttpStatus
+import io.micronaut.http.exceptions.HttpStatusException
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class ListenerRegistrySpec extends AbstractRabbitMQTest {
+
+    void "test pausing, resuming and rescaling a listener"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "endpoints.rabbitlisteners.enabled": true,
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+        RabbitListenerRegistry registry = applicationContext.getBean(RabbitListenerRegistry)
+        RabbitListenersEndpoint endpoint = applicationContext.getBean(RabbitListenersEndpoint)
+
+        expect:
+        registry.findListener("MyConsumer.listen").get().activeConsumers == 2
+        endpoint.getListener("MyConsumer.listen").concurrency == 2
+
+        when:
+        registry.pause("MyConsumer.listen")
+        producer.go("abc".bytes)
+        sleep(500)
+
+        then:
+        consumer.messages.get() == 0
+        endpoint.getListener("MyConsumer.listen").paused == true
+
+        when:
+        registry.resume("MyConsumer.listen")
+
+        then:
+        conditions.eventually {
+            consumer.messages.get() == 1
+        }
+
+        when:
+        endpoint.updateListener("MyConsumer.listen", null, 1)
+
+        then:
+        conditions.eventually {
+            registry.findListener("MyConsumer.listen").get().activeConsumers == 1
+        }
+
+        when: "the listener does not exist"
+        Map<String, Object> unknown = endpoint.updateListener("Unknown.listen", true, null)
+
+        then:
+        unknown == null
+
+        when: "the concurrency is invalid"
+        endpoint.updateListener("MyConsumer.listen", null, 0)
+
+        then:
+        thrown(HttpStatusException).status == HttpStatus.BAD_REQUEST
+
+        when: "nothing is changed"
+        endpoint.updateListener("MyConsumer.listen", null, null)
+
+        then:
+        thrown(HttpStatusException).status == HttpStatus.BAD_REQUEST
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "ListenerRegistrySpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("registry")
+        void go(byte[] data)
+
+    }
+
+    @Requires(property = "spec.name", value = "ListenerRegistrySpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static AtomicInteger messages = new AtomicInteger()
+
+        @Queue(value = "registry", concurrency = 2)
+        void listen(byte[] data) {
+            messages.incrementAndGet()
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import com.rabbitmq.client.BasicProperties
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerException
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerExceptionHandler
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.messaging.annotation.Header
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+
+class QuarantineSpec extends AbstractRabbitMQTest {
+
+    void "test messages delivered too many times are quarantined"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        producer.go("abc".bytes)
+
+        then:
+        conditions.eventually {
+            consumer.quarantined.size() == 1
+            consumer.quarantined[0] == 4
+        }
+        consumer.deliveries.get() == 3
+        !consumer.headers[0].containsKey("x-confirm-sequence")
+        consumer.headers[0]["x-quarantined-from"].toString() == "poison"
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test messages that cannot be routed by the quarantine exchange are re-queued"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": "QuarantineUnroutable"], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        UnroutableProducer producer = applicationContext.getBean(UnroutableProducer)
+        UnroutableConsumer consumer = applicationContext.getBean(UnroutableConsumer)
+
+        when:
+        producer.go("abc".bytes)
+
+        then: "the message is not removed from the queue"
+        conditions.eventually {
+            consumer.errors.size() >= 2
+            consumer.errors.every { it.message.contains("could not be quarantined") }
+        }
+        consumer.deliveries.get() == 1
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "QuarantineSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("poison")
+        void go(byte[] data)
+
+    }
+
+    @Requires(property = "spec.name", value = "QuarantineSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static AtomicInteger deliveries = new AtomicInteger()
+        public static List<Integer> quarantined = new CopyOnWriteArrayList<>()
+        public static List<Map<String, Object>> headers = new CopyOnWriteArrayList<>()
+
+        @Queue(value = "poison", reQueue = true)
+        @Quarantine(maxDeliveries = 3, exchange = "quarantine")
+        Boolean listen(byte[] data) {
+            deliveries.incrementAndGet()
+            false
+        }
+
+        @Queue("quarantined")
+        void quarantined(byte[] data, @Header("x-quarantined-deliveries") Integer count, BasicProperties properties) {
+            headers.add(properties.headers)
+            quarantined.add(count)
+        }
+    }
+
+    @Requires(property = "spec.name", value = "QuarantineUnroutable")
+    @RabbitClient
+    static interface UnroutableProducer {
+
+        @Binding("poison-unroutable")
+        void go(byte[] data)
+
+    }
+
+    @Requires(property = "spec.name", value = "QuarantineUnroutable")
+    @RabbitListener
+    static class UnroutableConsumer implements RabbitListenerExceptionHandler {
+
+        public static AtomicInteger deliveries = new AtomicInteger()
+        public static List<RabbitListenerException> errors = new CopyOnWriteArrayList<>()
+
+        @Queue(value = "poison-unroutable", reQueue = true)
+        @Quarantine(maxDeliveries = 1, exchange = "quarantine-unbound")
+        Boolean listen(byte[] data) {
+            deliveries.incrementAndGet()
+            false
+        }
+
+        @Override
+        void handle(RabbitListenerException exception) {
+            errors.add(exception)
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import com.rabbitmq.client.Channel
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerException
+import io.micronaut.configuration.rabbitmq.exception.RabbitListenerExceptionHandler
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerContainer
+import io.micronaut.configuration.rabbitmq.intercept.RabbitListenerRegistry
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class RecoverySpec extends AbstractRabbitMQTest {
+
+    void "test a consumer is subscribed again after it was cancelled by the broker"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "rabbitmq.listener.recovery.initial-delay": "100ms",
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+        ChannelPool channelPool = applicationContext.getBean(ChannelPool)
+        RabbitListenerContainer listener = applicationContext.getBean(RabbitListenerRegistry).findListener("MyConsumer.listen").get()
+
+        when:
+        producer.go("abc")
+
+        then:
+        conditions.eventually {
+            consumer.messages == ["abc"]
+        }
+
+        when: "the queue is deleted, which cancels the consumer"
+        Channel channel = channelPool.getChannel()
+        channel.queueDelete("recovery")
+
+        then:
+        conditions.eventually {
+            listener.activeConsumers == 0
+        }
+
+        when:
+        channel.queueDeclare("recovery", false, false, false, new HashMap<>())
+        channelPool.returnChannel(channel)
+
+        then:
+        conditions.eventually {
+            listener.activeConsumers == 1
+        }
+
+        when:
+        producer.go("def")
+
+        then:
+        conditions.eventually {
+            consumer.messages == ["abc", "def"]
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test a consumer is not subscribed twice when the connection recovers"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "rabbitmq.network-recovery-interval": 500,
+                 "rabbitmq.listener.recovery.initial-delay": "100ms",
+                 "spec.name": "RecoveryConnectionSpec"], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 10)
+        ConnectionProducer producer = applicationContext.getBean(ConnectionProducer)
+        ConnectionConsumer consumer = applicationContext.getBean(ConnectionConsumer)
+        ChannelPool channelPool = applicationContext.getBean(ChannelPool)
+        RabbitListenerContainer listener = applicationContext.getBean(RabbitListenerRegistry).findListener("ConnectionConsumer.listen").get()
+
+        when: "the broker closes the connection"
+        rabbitContainer.execInContainer("rabbitmqctl", "close_all_connections", "test")
+
+        then: "the connection subscribes the exclusive consumer again"
+        conditions.eventually {
+            Channel channel = channelPool.getChannel()
+            try {
+                assert channel.queueDeclarePassive("recovery-connection").consumerCount == 1
+            } finally {
+                channelPool.returnChannel(channel)
+            }
+        }
+
+        when:
+        sleep(1000)
+        producer.go("abc")
+
+        then: "the listener did not subscribe a second consumer"
+        conditions.eventually {
+            consumer.messages == ["abc"]
+        }
+        listener.activeConsumers == 1
+        consumer.errors.isEmpty()
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "RecoverySpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("recovery")
+        void go(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "RecoverySpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static List<String> messages = new CopyOnWriteArrayList<>()
+
+        @Queue("recovery")
+        void listen(String data) {
+            messages.add(data)
+        }
+    }
+
+    @Requires(property = "spec.name", value = "RecoveryConnectionSpec")
+    @RabbitClient
+    static interface ConnectionProducer {
+
+        @Binding("recovery-connection")
+        void go(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "RecoveryConnectionSpec")
+    @RabbitListener
+    static class ConnectionConsumer implements RabbitListenerExceptionHandler {
+
+        public static List<String> messages = new CopyOnWriteArrayList<>()
+        public static List<RabbitListenerException> errors = new CopyOnWriteArrayList<>()
+
+        @Queue(value = "recovery-connection", exclusive = true)
+        void listen(String data) {
+            messages.add(data)
+        }
+
+        @Override
+        void handle(RabbitListenerException exception) {
+            errors.add(exception)
+        }
+    }
+}
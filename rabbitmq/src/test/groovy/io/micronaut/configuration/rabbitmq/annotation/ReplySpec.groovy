@@ -0,0 +1,71 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.messaging.annotation.SendTo
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.ConcurrentHashMap
+
+class ReplySpec extends AbstractRabbitMQTest {
+
+    void "test the return value is published to the reply address"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        ReplyConsumer replyConsumer = applicationContext.getBean(ReplyConsumer)
+
+        when:
+        producer.go("abc", "rpc-replies", "1")
+        producer.go("def", "rpc-replies", "2")
+
+        then:
+        conditions.eventually {
+            replyConsumer.replies == ["1": "ABC", "2": "DEF"]
+        }
+        replyConsumer.contentTypes == ["1": "text/plain|UTF-8", "2": "text/plain|UTF-8"]
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "ReplySpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("rpc")
+        void go(String data, @RabbitProperty("replyTo") String replyTo, @RabbitProperty("correlationId") String correlationId)
+
+    }
+
+    @Requires(property = "spec.name", value = "ReplySpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        @Queue("rpc")
+        @SendTo
+        String listen(String data) {
+            data.toUpperCase()
+        }
+    }
+
+    @Requires(property = "spec.name", value = "ReplySpec")
+    @RabbitListener
+    static class ReplyConsumer {
+
+        public static Map<String, String> replies = new ConcurrentHashMap<>()
+        public static Map<String, String> contentTypes = new ConcurrentHashMap<>()
+
+        @Queue("rpc-replies")
+        void listen(String data,
+                    @RabbitProperty("correlationId") String correlationId,
+                    @RabbitProperty("contentType") String contentType,
+                    @RabbitProperty("contentEncoding") String contentEncoding) {
+            contentTypes.put(correlationId, contentType + '|' + contentEncoding)
+            replies.put(correlationId, data)
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.messaging.exceptions.MessageListenerException
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class RetryPolicySpec extends AbstractRabbitMQTest {
+
+    void "test failed messages are retried with a delay"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        producer.go("abc".bytes)
+
+        then:
+        conditions.eventually {
+            consumer.attempts.size() == 3
+        }
+        consumer.attempts[1] - consumer.attempts[0] >= 160
+        consumer.attempts[2] - consumer.attempts[1] >= 320
+
+        when:
+        sleep(1000)
+
+        then: "the message is not retried after the last attempt"
+        consumer.attempts.size() == 3
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test a retry policy cannot be combined with key ordering"() {
+        when:
+        ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": "RetryPolicyKeyOrdered"], "test")
+
+        then:
+        Exception e = thrown()
+        Throwable cause = e
+        while (!(cause instanceof MessageListenerException) && cause.cause != null) {
+            cause = cause.cause
+        }
+        cause.message.contains("cannot combine @RetryPolicy with @KeyOrdered")
+    }
+
+    @Requires(property = "spec.name", value = "RetryPolicySpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("retry")
+        void go(byte[] data)
+
+    }
+
+    @Requires(property = "spec.name", value = "RetryPolicySpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static List<Long> attempts = new CopyOnWriteArrayList<>()
+
+        @Queue("retry")
+        @RetryPolicy(attempts = 3, delay = "200ms", multiplier = 2, jitter = 0.2)
+        void listen(byte[] data) {
+            attempts.add(System.currentTimeMillis())
+            throw new RuntimeException("fail")
+        }
+    }
+
+    @Requires(property = "spec.name", value = "RetryPolicyKeyOrdered")
+    @RabbitListener
+    static class OrderedConsumer {
+
+        @Queue("retry")
+        @KeyOrdered(lanes = 2)
+        @RetryPolicy(attempts = 3, delay = "200ms")
+        void listen(byte[] data) {
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import com.rabbitmq.client.Channel
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+class ShutdownSpec extends AbstractRabbitMQTest {
+
+    void "test delivered messages are processed before the application is shut down"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "rabbitmq.listener.shutdown-timeout": "5s",
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        producer.go("abc")
+
+        then:
+        conditions.eventually {
+            consumer.started.get()
+        }
+
+        when:
+        applicationContext.close()
+
+        then:
+        consumer.finished.get()
+
+        when:
+        applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672)], "test")
+        ChannelPool channelPool = applicationContext.getBean(ChannelPool)
+        Channel channel = channelPool.getChannel()
+
+        then: "the message was acknowledged"
+        channel.messageCount("drain") == 0
+
+        cleanup:
+        channelPool.returnChannel(channel)
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "ShutdownSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("drain")
+        void go(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "ShutdownSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static AtomicBoolean started = new AtomicBoolean()
+        public static AtomicBoolean finished = new AtomicBoolean()
+
+        @Queue("drain")
+        void listen(String data) {
+            started.set(true)
+            Thread.sleep(1000)
+            finished.set(true)
+        }
+    }
+}
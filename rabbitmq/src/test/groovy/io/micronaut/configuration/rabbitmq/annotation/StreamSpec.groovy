@@ -0,0 +1,122 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import com.rabbitmq.client.Channel
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.bind.AcknowledgeableMessage
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.reactivex.Completable
+import io.reactivex.Flowable
+import io.reactivex.schedulers.Schedulers
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class StreamSpec extends AbstractRabbitMQTest {
+
+    void "test consuming messages as a stream"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        10.times { producer.go("abc" + it) }
+
+        then:
+        conditions.eventually {
+            consumer.messages.size() == 10
+            consumer.messages == (0..9).collect { "ABC" + it }
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test acknowledgeable messages are re-queued if processing fails after they are emitted"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": "StreamAckSpec"], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        AckProducer producer = applicationContext.getBean(AckProducer)
+        AckConsumer consumer = applicationContext.getBean(AckConsumer)
+        ChannelPool pool = applicationContext.getBean(ChannelPool)
+
+        when:
+        producer.go("abc")
+        producer.go("fail")
+
+        then: "the message that was processed is acknowledged"
+        conditions.eventually {
+            consumer.processed == ["abc"]
+        }
+
+        and: "the message that failed asynchronously is returned to the queue"
+        conditions.eventually {
+            Channel channel = pool.getChannel()
+            try {
+                assert channel.queueDeclarePassive("stream-ack").messageCount == 1
+            } finally {
+                pool.returnChannel(channel)
+            }
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "StreamSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("stream")
+        void go(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "StreamSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static List<String> messages = new CopyOnWriteArrayList<>()
+
+        @Queue(value = "stream", prefetch = 4)
+        Completable listen(Flowable<String> stream) {
+            stream.map({ it.toUpperCase() })
+                    .doOnNext({ messages.add(it) })
+                    .ignoreElements()
+        }
+    }
+
+    @Requires(property = "spec.name", value = "StreamAckSpec")
+    @RabbitClient
+    static interface AckProducer {
+
+        @Binding("stream-ack")
+        void go(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "StreamAckSpec")
+    @RabbitListener
+    static class AckConsumer {
+
+        public static List<String> processed = new CopyOnWriteArrayList<>()
+
+        @Queue(value = "stream-ack", prefetch = 4)
+        Completable listen(Flowable<AcknowledgeableMessage<String>> stream) {
+            stream.observeOn(Schedulers.io())
+                    .doOnNext({ message ->
+                        if (message.body == "fail") {
+                            throw new IllegalStateException("failed after emission")
+                        }
+                        processed.add(message.body)
+                        message.ack()
+                    })
+                    .ignoreElements()
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.micronaut.configuration.rabbitmq.annotation
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.executor.RabbitVirtualThreadExecutorFactory
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.inject.qualifiers.Qualifiers
+import spock.lang.IgnoreIf
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+
+class VirtualThreadSpec extends AbstractRabbitMQTest {
+
+    @IgnoreIf({ Thread.methods*.name.contains("ofVirtual") })
+    void "test the virtual thread executor does not exist before Java 21"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672)], "test")
+
+        expect:
+        !applicationContext.containsBean(ExecutorService, Qualifiers.byName(RabbitVirtualThreadExecutorFactory.VIRTUAL_THREADS))
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @IgnoreIf({ !Thread.methods*.name.contains("ofVirtual") })
+    void "test consuming on virtual threads"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 3)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        when:
+        producer.go("abc".bytes)
+        producer.go("def".bytes)
+
+        then:
+        conditions.eventually {
+            consumer.virtual.size() == 2
+            consumer.virtual.every { it }
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "VirtualThreadSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("virtual")
+        void go(byte[] data)
+
+    }
+
+    @Requires(property = "spec.name", value = "VirtualThreadSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static List<Boolean> virtual = new CopyOnWriteArrayList<>()
+
+        @Queue(value = "virtual", prefetch = 10, executor = RabbitVirtualThreadExecutorFactory.VIRTUAL_THREADS)
+        void listen(byte[] data) {
+            virtual.add(Thread.currentThread().isVirtual())
+        }
+    }
+}
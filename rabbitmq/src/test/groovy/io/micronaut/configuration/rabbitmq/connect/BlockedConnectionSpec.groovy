@@ -0,0 +1,142 @@
+package io.micronaut.configuration.rabbitmq.connect
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.annotation.Binding
+import io.micronaut.configuration.rabbitmq.annotation.Queue
+import io.micronaut.configuration.rabbitmq.annotation.RabbitClient
+import io.micronaut.configuration.rabbitmq.annotation.RabbitListener
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.messaging.exceptions.MessagingClientException
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class BlockedConnectionSpec extends AbstractRabbitMQTest {
+
+    void "test publishing fails while the connection is blocked"() {
+        ApplicationContext applicationContext = startContext("fail")
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        RabbitConnectionBlockedListener blockedListener = applicationContext.getBean(RabbitConnectionBlockedListener)
+
+        when:
+        blockedListener.handleBlocked("low on memory")
+        producer.go("abc")
+
+        then:
+        MessagingClientException e = thrown()
+        e.message.contains("low on memory")
+
+        cleanup:
+        blockedListener.handleUnblocked()
+        applicationContext.close()
+    }
+
+    void "test publishing waits until the connection is unblocked"() {
+        ApplicationContext applicationContext = startContext("wait")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+        RabbitConnectionBlockedListener blockedListener = applicationContext.getBean(RabbitConnectionBlockedListener)
+
+        when:
+        blockedListener.handleBlocked("low on memory")
+        Thread.start {
+            sleep(200)
+            blockedListener.handleUnblocked()
+        }
+        producer.go("abc")
+
+        then:
+        !blockedListener.blocked
+        conditions.eventually {
+            consumer.messages.contains("abc")
+        }
+
+        cleanup:
+        consumer.messages.clear()
+        applicationContext.close()
+    }
+
+    void "test messages are buffered until the connection is unblocked"() {
+        ApplicationContext applicationContext = startContext("buffer")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+        RabbitConnectionBlockedListener blockedListener = applicationContext.getBean(RabbitConnectionBlockedListener)
+
+        when:
+        blockedListener.handleBlocked("low on memory")
+        producer.go("abc")
+        producer.go("def")
+        sleep(200)
+
+        then:
+        consumer.messages.isEmpty()
+
+        when:
+        blockedListener.handleUnblocked()
+
+        then:
+        conditions.eventually {
+            consumer.messages == ["abc", "def"]
+        }
+
+        cleanup:
+        consumer.messages.clear()
+        applicationContext.close()
+    }
+
+    void "test messages sent while the buffer is draining are published after the buffered messages"() {
+        ApplicationContext applicationContext = startContext("buffer")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+        RabbitConnectionBlockedListener blockedListener = applicationContext.getBean(RabbitConnectionBlockedListener)
+        List<String> expected = (1..100).collect { it.toString() } + ["last"]
+
+        when:
+        blockedListener.handleBlocked("low on memory")
+        (1..100).each { producer.go(it.toString()) }
+        blockedListener.handleUnblocked()
+        producer.go("last")
+
+        then:
+        conditions.eventually {
+            consumer.messages == expected
+        }
+
+        cleanup:
+        consumer.messages.clear()
+        applicationContext.close()
+    }
+
+    private ApplicationContext startContext(String policy) {
+        ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "rabbitmq.publisher.blocked.policy": policy,
+                 "rabbitmq.publisher.blocked.timeout": "2s",
+                 "spec.name": getClass().simpleName], "test")
+    }
+
+    @Requires(property = "spec.name", value = "BlockedConnectionSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("blocked")
+        void go(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "BlockedConnectionSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        public static List<String> messages = new CopyOnWriteArrayList<>()
+
+        @Queue("blocked")
+        void listen(String data) {
+            messages.add(data)
+        }
+    }
+}
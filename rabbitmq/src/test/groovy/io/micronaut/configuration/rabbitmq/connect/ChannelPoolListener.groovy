@@ -22,6 +22,39 @@ class ChannelPoolListener implements BeanCreatedEventListener<ChannelPool> {
             channel.queueDeclare("type", false, false, false, new HashMap<>())
             channel.queueDeclare("boolean", false, false, false, new HashMap<>())
             channel.queueDeclare("product", false, false, false, new HashMap<>())
+            channel.queueDeclare("executor", false, false, false, new HashMap<>())
+            channel.queueDeclare("async", false, false, false, new HashMap<>())
+            channel.queueDeclare("virtual", false, false, false, new HashMap<>())
+            channel.queueDeclare("ordered", false, false, false, new HashMap<>())
+            channel.queueDeclare("lazy", false, false, false, new HashMap<>())
+            channel.queueDeclare("header-types", false, false, false, new HashMap<>())
+            channel.queueDeclare("adaptive", false, false, false, new HashMap<>())
+            channel.queueDeclare("registry", false, false, false, new HashMap<>())
+            channel.queueDeclare("retry", false, false, false, new HashMap<>())
+            channel.queueDeclare("poison", false, false, false, new HashMap<>())
+            channel.queueDeclare("stream", false, false, false, new HashMap<>())
+            channel.queueDeclare("dedup", false, false, false, new HashMap<>())
+            channel.queueDeclare("recovery", false, false, false, new HashMap<>())
+            channel.queueDeclare("drain", false, false, false, new HashMap<>())
+            channel.queueDeclare("poll", false, false, false, new HashMap<>())
+            channel.queueDeclare("rpc", false, false, false, new HashMap<>())
+            channel.queueDeclare("rpc-replies", false, false, false, new HashMap<>())
+            channel.queueDeclare("breaker", false, false, false, new HashMap<>())
+            channel.queueDeclare("named", false, false, false, new HashMap<>())
+            channel.queueDeclare("blocked", false, false, false, new HashMap<>())
+            channel.queueDeclare("stream-ack", false, false, false, new HashMap<>())
+            channel.queueDeclare("dedup-ack", false, false, false, new HashMap<>())
+            channel.queueDeclare("recovery-connection", false, false, false, new HashMap<>())
+            channel.queueDeclare("metrics-listener", false, false, false, new HashMap<>())
+            channel.queueDeclare("metrics-ack", false, false, false, new HashMap<>())
+            channel.queueDeclare("metrics-publish", false, false, false, new HashMap<>())
+            channel.queueDeclare("async-ack", false, false, false, new HashMap<>())
+
+            channel.exchangeDeclare("quarantine", "fanout", false)
+            channel.queueDeclare("quarantined", false, false, false, new HashMap<>())
+            channel.queueBind("quarantined", "quarantine", "")
+            channel.queueDeclare("poison-unroutable", false, false, false, new HashMap<>())
+            channel.exchangeDeclare("quarantine-unbound", "fanout", false)
 
             channel.exchangeDeclare("animals", "headers", false);
             channel.queueDeclare("dogs", false, false, false, null);
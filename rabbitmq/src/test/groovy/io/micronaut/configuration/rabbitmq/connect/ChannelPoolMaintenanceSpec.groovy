@@ -0,0 +1,80 @@
+package io.micronaut.configuration.rabbitmq.connect
+
+import com.rabbitmq.client.Channel
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.context.ApplicationContext
+import spock.util.concurrent.PollingConditions
+
+class ChannelPoolMaintenanceSpec extends AbstractRabbitMQTest {
+
+    void "test idle channels are evicted down to the minimum"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "rabbitmq.channel-pool.min-idle": 2,
+                 "rabbitmq.channel-pool.idle-timeout": "200ms",
+                 "rabbitmq.channel-pool.maintenance-interval": "100ms",
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        DefaultChannelPool pool = applicationContext.getBean(DefaultChannelPool)
+
+        when: "a burst of channels is returned to the pool"
+        List<Channel> channels = (1..10).collect { pool.getChannel() }
+        channels.each { pool.returnChannel(it) }
+
+        then:
+        pool.idleChannels == 10
+
+        and: "the idle channels are closed by the background task"
+        conditions.eventually {
+            pool.idleChannels == 2
+            pool.totalChannels == 2
+            channels.count { it.open } == 2
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test channels past their max lifetime are not reused"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "rabbitmq.channel-pool.max-lifetime": "200ms",
+                 "rabbitmq.channel-pool.maintenance-interval": "1h",
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        DefaultChannelPool pool = applicationContext.getBean(DefaultChannelPool)
+
+        when: "a channel is returned after its max lifetime"
+        Channel channel = pool.getChannel()
+        sleep(300)
+        pool.returnChannel(channel)
+
+        then: "the channel is closed instead of being returned to the pool"
+        pool.idleChannels == 0
+        conditions.eventually {
+            !channel.open
+            pool.totalChannels == 0
+        }
+
+        when: "an idle channel reaches its max lifetime"
+        channel = pool.getChannel()
+        pool.returnChannel(channel)
+        sleep(300)
+        pool.maintain()
+
+        then:
+        pool.idleChannels == 0
+        !channel.open
+
+        when:
+        Channel replacement = pool.getChannel()
+
+        then:
+        replacement.open
+        replacement != channel
+
+        cleanup:
+        pool.returnChannel(replacement)
+        applicationContext.close()
+    }
+}
@@ -0,0 +1,44 @@
+package io.micronaut.configuration.rabbitmq.connect
+
+import com.rabbitmq.client.Channel
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.context.ApplicationContext
+import spock.util.concurrent.PollingConditions
+
+class ChannelPoolWarmUpSpec extends AbstractRabbitMQTest {
+
+    void "test channels are opened at startup and replaced when closed by an error"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "rabbitmq.channel-pool.initial-size": 4,
+                 "rabbitmq.channel-pool.confirm-select": true,
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        DefaultChannelPool pool = applicationContext.getBean(DefaultChannelPool)
+
+        expect: "the pool was warmed up before the application started"
+        pool.idleChannels >= 4
+
+        when: "a channel is closed by an error"
+        Channel channel = pool.getChannel()
+        channel.queueDeclarePassive("does-not-exist")
+
+        then:
+        thrown(IOException)
+        !channel.open
+        conditions.eventually {
+            pool.idleChannels >= 3
+        }
+
+        when:
+        pool.returnChannel(channel)
+        Channel replacement = pool.getChannel()
+
+        then:
+        replacement.open
+
+        cleanup:
+        pool.returnChannel(replacement)
+        applicationContext.close()
+    }
+}
@@ -0,0 +1,70 @@
+package io.micronaut.configuration.rabbitmq.connect
+
+import com.rabbitmq.client.Connection
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.annotation.Binding
+import io.micronaut.configuration.rabbitmq.annotation.Queue
+import io.micronaut.configuration.rabbitmq.annotation.RabbitClient
+import io.micronaut.configuration.rabbitmq.annotation.RabbitListener
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.reactivex.Completable
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class NamedConnectionSpec extends AbstractRabbitMQTest {
+
+    void "test clients and listeners using a named connection"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "rabbitmq.servers.other.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MyConsumer consumer = applicationContext.getBean(MyConsumer)
+
+        expect:
+        applicationContext.getBean(ChannelPool) instanceof DefaultChannelPool
+        applicationContext.getBean(ChannelPool, Qualifiers.byName("other")) != applicationContext.getBean(ChannelPool)
+        applicationContext.getBean(Connection, Qualifiers.byName("other")).clientProvidedName == "other"
+
+        when:
+        producer.go("abc")
+        producer.goConfirm("def").blockingAwait()
+
+        then:
+        conditions.eventually {
+            consumer.messages.size() == 2
+            consumer.messages.containsAll(["abc", "def"])
+        }
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    @Requires(property = "spec.name", value = "NamedConnectionSpec")
+    @RabbitClient(connection = "other")
+    static interface MyProducer {
+
+        @Binding("named")
+        void go(String data)
+
+        @Binding("named")
+        Completable goConfirm(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "NamedConnectionSpec")
+    @RabbitListener(connection = "other")
+    static class MyConsumer {
+
+        public static List<String> messages = new CopyOnWriteArrayList<>()
+
+        @Queue("named")
+        void listen(String data) {
+            messages.add(data)
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package io.micronaut.configuration.rabbitmq.executor
+
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+class SerialExecutorSpec extends Specification {
+
+    void "test a rejected task is not executed later"() {
+        List<Runnable> rejected = new CopyOnWriteArrayList<>()
+        boolean executed = false
+        Executor delegate = { throw new RejectedExecutionException("shutdown") } as Executor
+        SerialExecutor executor = new SerialExecutor(delegate, { task, e -> rejected.add(task) })
+
+        when:
+        executor.execute({ executed = true })
+
+        then:
+        thrown(RejectedExecutionException)
+        !executed
+        rejected.empty
+    }
+
+    void "test waiting tasks are rejected when the delegate rejects a following batch"() {
+        CountDownLatch started = new CountDownLatch(1)
+        CountDownLatch release = new CountDownLatch(1)
+        List<Runnable> rejected = new CopyOnWriteArrayList<>()
+        List<Integer> executed = new CopyOnWriteArrayList<>()
+        int calls = 0
+        Executor delegate = { Runnable r ->
+            if (calls++ > 0) {
+                throw new RejectedExecutionException("shutdown")
+            }
+            new Thread(r).start()
+        } as Executor
+        SerialExecutor executor = new SerialExecutor(delegate, { task, e -> rejected.add(task) })
+
+        when: "more tasks than a single batch are waiting"
+        executor.execute({
+            started.countDown()
+            release.await()
+        })
+        started.await()
+        (1..70).each { int i -> executor.execute({ executed.add(i) }) }
+        release.countDown()
+
+        then: "the tasks that cannot be scheduled are handed to the rejection handler"
+        new PollingConditions(timeout: 5).eventually {
+            executed.size() + rejected.size() == 70
+        }
+        executed == (1..63).toList()
+        rejected.size() == 7
+    }
+}
@@ -0,0 +1,86 @@
+package io.micronaut.configuration.rabbitmq.metrics
+
+import com.rabbitmq.client.Channel
+import io.micrometer.core.instrument.MeterRegistry
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.connect.DefaultChannelPool
+import io.micronaut.context.ApplicationContext
+
+class ChannelPoolMetricsSpec extends AbstractRabbitMQTest {
+
+    void "test the channels created, discarded, evicted and retired by the pool are counted"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "micronaut.metrics.enabled": true,
+                 "rabbitmq.channel-pool.idle-timeout": "100ms",
+                 "rabbitmq.channel-pool.maintenance-interval": "1h",
+                 "spec.name": getClass().simpleName], "test")
+        DefaultChannelPool pool = applicationContext.getBean(DefaultChannelPool)
+        MeterRegistry registry = applicationContext.getBean(MeterRegistry)
+        double created = count(registry, "rabbitmq.pool.channels.created")
+        int idle = pool.idleChannels
+
+        when: "more channels are retrieved than are waiting in the pool"
+        List<Channel> channels = (1..3).collect { pool.getChannel() }
+
+        then:
+        count(registry, "rabbitmq.pool.channels.created") == created + Math.max(0, 3 - idle)
+        registry.get("rabbitmq.pool.channels.active").tag("connection", "default").gauge().value() >= 3
+
+        when: "a channel closed by an error is returned"
+        channels[0].queueDeclarePassive("does-not-exist")
+
+        then:
+        thrown(IOException)
+
+        when:
+        channels.each { pool.returnChannel(it) }
+
+        then:
+        count(registry, "rabbitmq.pool.channels.discarded") == 1
+
+        when: "the idle channels time out"
+        sleep(200)
+        pool.maintain()
+
+        then: "they are evicted rather than discarded"
+        count(registry, "rabbitmq.pool.channels.evicted") >= 2
+        count(registry, "rabbitmq.pool.channels.discarded") == 1
+        count(registry, "rabbitmq.pool.channels.retired") == 0
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test channels past their max lifetime are counted as retired"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "micronaut.metrics.enabled": true,
+                 "rabbitmq.channel-pool.max-lifetime": "100ms",
+                 "rabbitmq.channel-pool.maintenance-interval": "1h",
+                 "spec.name": getClass().simpleName], "test")
+        DefaultChannelPool pool = applicationContext.getBean(DefaultChannelPool)
+        MeterRegistry registry = applicationContext.getBean(MeterRegistry)
+
+        when: "the channels opened on startup are retired"
+        sleep(200)
+        pool.maintain()
+        double retired = count(registry, "rabbitmq.pool.channels.retired")
+
+        and:
+        Channel channel = pool.getChannel()
+        sleep(200)
+        pool.returnChannel(channel)
+
+        then:
+        count(registry, "rabbitmq.pool.channels.retired") == retired + 1
+        count(registry, "rabbitmq.pool.channels.discarded") == 0
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    private static double count(MeterRegistry registry, String name) {
+        registry.get(name).tag("connection", "default").counter().count()
+    }
+}
@@ -0,0 +1,106 @@
+package io.micronaut.configuration.rabbitmq.metrics
+
+import com.rabbitmq.client.Envelope
+import io.micrometer.core.instrument.MeterRegistry
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.annotation.Binding
+import io.micronaut.configuration.rabbitmq.annotation.Queue
+import io.micronaut.configuration.rabbitmq.annotation.RabbitClient
+import io.micronaut.configuration.rabbitmq.annotation.RabbitListener
+import io.micronaut.configuration.rabbitmq.bind.RabbitAcknowledgement
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import spock.util.concurrent.PollingConditions
+
+class ListenerMetricsSpec extends AbstractRabbitMQTest {
+
+    void "test the messages settled by a listener are counted"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "micronaut.metrics.enabled": true,
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MeterRegistry registry = applicationContext.getBean(MeterRegistry)
+
+        when:
+        producer.go("ack")
+        producer.go("ack")
+        producer.go("nack")
+
+        then:
+        conditions.eventually {
+            count(registry, "rabbitmq.listener.acks", "MyConsumer.listen") == 2
+            count(registry, "rabbitmq.listener.nacks", "MyConsumer.listen") == 1
+        }
+        count(registry, "rabbitmq.listener.requeues", "MyConsumer.listen") == 0
+        registry.get("rabbitmq.listener.process").tag("listener", "MyConsumer.listen").timer().count() == 3
+        registry.get("rabbitmq.listener.inflight").tag("listener", "MyConsumer.listen").gauge().value() == 0
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test the messages settled through an acknowledgement are counted"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "micronaut.metrics.enabled": true,
+                 "spec.name": getClass().simpleName], "test")
+        PollingConditions conditions = new PollingConditions(timeout: 5)
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MeterRegistry registry = applicationContext.getBean(MeterRegistry)
+
+        when: "a message is re-queued once, then acknowledged"
+        producer.ack("requeue")
+
+        then:
+        conditions.eventually {
+            count(registry, "rabbitmq.listener.acks", "AckConsumer.listen") == 1
+        }
+        count(registry, "rabbitmq.listener.requeues", "AckConsumer.listen") == 1
+        count(registry, "rabbitmq.listener.nacks", "AckConsumer.listen") == 0
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    private static double count(MeterRegistry registry, String name, String listener) {
+        registry.get(name).tag("listener", listener).counter().count()
+    }
+
+    @Requires(property = "spec.name", value = "ListenerMetricsSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("metrics-listener")
+        void go(String data)
+
+        @Binding("metrics-ack")
+        void ack(String data)
+
+    }
+
+    @Requires(property = "spec.name", value = "ListenerMetricsSpec")
+    @RabbitListener
+    static class MyConsumer {
+
+        @Queue("metrics-listener")
+        Boolean listen(String data) {
+            data == "ack"
+        }
+    }
+
+    @Requires(property = "spec.name", value = "ListenerMetricsSpec")
+    @RabbitListener
+    static class AckConsumer {
+
+        @Queue("metrics-ack")
+        void listen(String data, Envelope envelope, RabbitAcknowledgement acknowledgement) {
+            if (envelope.redeliver) {
+                acknowledgement.ack()
+            } else {
+                acknowledgement.nack(false, true)
+            }
+        }
+    }
+}
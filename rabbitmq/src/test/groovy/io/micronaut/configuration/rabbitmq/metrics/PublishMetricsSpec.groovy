@@ -0,0 +1,89 @@
+package io.micronaut.configuration.rabbitmq.metrics
+
+import com.rabbitmq.client.AMQP
+import com.rabbitmq.client.Channel
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.annotation.Binding
+import io.micronaut.configuration.rabbitmq.annotation.RabbitClient
+import io.micronaut.configuration.rabbitmq.connect.ChannelPool
+import io.micronaut.configuration.rabbitmq.reactive.RabbitPublishMetrics
+import io.micronaut.configuration.rabbitmq.reactive.RxJavaReactivePublisher
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+import io.micronaut.inject.ExecutableMethod
+import io.reactivex.Completable
+import io.reactivex.schedulers.Schedulers
+import spock.util.concurrent.PollingConditions
+
+import javax.inject.Provider
+import java.util.concurrent.TimeUnit
+
+class PublishMetricsSpec extends AbstractRabbitMQTest {
+
+    void "test the confirms of published messages are recorded"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "micronaut.metrics.enabled": true,
+                 "spec.name": getClass().simpleName], "test")
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        MeterRegistry registry = applicationContext.getBean(MeterRegistry)
+
+        when:
+        3.times {
+            producer.go("abc").blockingAwait(10, TimeUnit.SECONDS)
+        }
+
+        then:
+        registry.get("rabbitmq.client.confirm")
+                .tags("client", "MyProducer", "method", "go", "exchange", "", "connection", "default")
+                .timer().count() == 3
+        registry.get("rabbitmq.client.publish").tags("method", "go").timer().count() == 3
+        registry.get("rabbitmq.client.serialize").tags("method", "go").timer().count() == 3
+        registry.get("rabbitmq.client.confirms.outstanding").tags("method", "go").gauge().value() == 0
+        registry.get("rabbitmq.client.nacks").tags("method", "go").counter().count() == 0
+
+        cleanup:
+        applicationContext.close()
+    }
+
+    void "test a confirm that is no longer awaited is not outstanding"() {
+        given: "a channel that never confirms"
+        PollingConditions conditions = new PollingConditions(timeout: 2)
+        MeterRegistry registry = new SimpleMeterRegistry()
+        RabbitMetricsSupport support = new RabbitMetricsSupport({ -> registry } as Provider<MeterRegistry>, null, [:])
+        ExecutableMethod method = Mock(ExecutableMethod) {
+            getDeclaringType() >> MyProducer
+            getMethodName() >> "go"
+        }
+        RabbitPublishMetrics metrics = new MicrometerRabbitPublishMetricsFactory(support).create(method, "", "default")
+        Channel channel = Mock(Channel) {
+            isOpen() >> true
+        }
+        ChannelPool channelPool = [getChannel: { -> channel }, returnChannel: { Channel c -> }] as ChannelPool
+        RxJavaReactivePublisher publisher = new RxJavaReactivePublisher(channelPool)
+
+        when: "the publish times out"
+        publisher.publish("", "abc", new AMQP.BasicProperties.Builder().build(), "abc".bytes, metrics)
+                .subscribeOn(Schedulers.io())
+                .timeout(200, TimeUnit.MILLISECONDS)
+                .blockingAwait()
+
+        then:
+        thrown(RuntimeException)
+        conditions.eventually {
+            registry.get("rabbitmq.client.confirms.outstanding").gauge().value() == 0
+        }
+        registry.get("rabbitmq.client.confirm").timer().count() == 0
+    }
+
+    @Requires(property = "spec.name", value = "PublishMetricsSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("metrics-publish")
+        Completable go(String data)
+
+    }
+}
@@ -0,0 +1,58 @@
+package io.micronaut.configuration.rabbitmq.poll
+
+import io.micronaut.configuration.rabbitmq.AbstractRabbitMQTest
+import io.micronaut.configuration.rabbitmq.annotation.Binding
+import io.micronaut.configuration.rabbitmq.annotation.RabbitClient
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Requires
+
+class RabbitPollingConsumerSpec extends AbstractRabbitMQTest {
+
+    void "test polling messages in batches"() {
+        ApplicationContext applicationContext = ApplicationContext.run(
+                ["rabbitmq.port": rabbitContainer.getMappedPort(5672),
+                 "spec.name": getClass().simpleName], "test")
+        MyProducer producer = applicationContext.getBean(MyProducer)
+        RabbitPollingConsumer consumer = applicationContext.getBean(RabbitPollingConsumer)
+
+        when:
+        5.times { producer.go(new Person(name: "abc" + it)) }
+        sleep(500)
+        RabbitMessageBatch<Person> batch = consumer.poll("poll", 3, Person)
+
+        then:
+        batch.size() == 3
+        batch.messages*.name == ["abc0", "abc1", "abc2"]
+
+        when: "the batch is closed without being acknowledged"
+        batch.close()
+        batch = consumer.poll("poll", 10, Person)
+
+        then: "the messages were re-queued"
+        batch.size() == 5
+
+        when:
+        batch.acknowledge()
+        batch = consumer.poll("poll", 10, Person)
+
+        then:
+        batch.empty
+
+        cleanup:
+        batch?.close()
+        applicationContext.close()
+    }
+
+    static class Person {
+        String name
+    }
+
+    @Requires(property = "spec.name", value = "RabbitPollingConsumerSpec")
+    @RabbitClient
+    static interface MyProducer {
+
+        @Binding("poll")
+        void go(Person data)
+
+    }
+}